@@ -1,21 +1,49 @@
 package com.zcckj.mcp.mysql;
 
+import com.zcckj.mcp.mysql.model.Resource;
 import com.zcckj.mcp.mysql.service.MysqlMcpServerService;
+import com.zcckj.mcp.mysql.service.ResultSpillService;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncResourceSpecification;
+import io.modelcontextprotocol.spec.McpSchema;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.List;
 
 @SpringBootApplication
+@EnableScheduling
 public class McpServerApplication {
     public static void main(String[] args) {
         SpringApplication.run(McpServerApplication.class, args);
     }
 
+    /**
+     * 同步模式注册工具；异步（webflux）模式由 ReactiveToolConfig 注册
+     */
     @Bean
+    @ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "SYNC", matchIfMissing = true)
     public ToolCallbackProvider dBTools(MysqlMcpServerService mySQLMCPServerService) {
 
         return MethodToolCallbackProvider.builder().toolObjects(mySQLMCPServerService).build();
     }
+
+    /**
+     * 同步模式注册落盘结果集的分页资源；异步（webflux）模式由 ReactiveToolConfig 注册
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "SYNC", matchIfMissing = true)
+    public List<SyncResourceSpecification> resultResources(ResultSpillService resultSpillService) {
+        return List.of(new SyncResourceSpecification(toMcpResource(resultSpillService.resourceTemplate()),
+                (exchange, request) -> resultSpillService.read(request.uri())));
+    }
+
+    public static McpSchema.Resource toMcpResource(Resource resource) {
+        return new McpSchema.Resource(resource.getUri(), resource.getName(), resource.getDescription(),
+                resource.getMimeType(), null);
+    }
 }
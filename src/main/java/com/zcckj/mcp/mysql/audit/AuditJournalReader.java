@@ -0,0 +1,171 @@
+package com.zcckj.mcp.mysql.audit;
+
+import com.zcckj.mcp.mysql.utils.JsonUtils;
+import lombok.Data;
+
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 审计日志读取工具：按写入顺序回放目录下的全部审计日志，可按条件过滤
+ * <p>
+ * 命令行用法（参数均可省略）：
+ * <pre>
+ * java -cp mysql-mcp-server.jar -Dloader.main=com.zcckj.mcp.mysql.audit.AuditJournalReader \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      --dir=logs/audit --tool=execute_tool --outcome=ERROR \
+ *      --since="2026-10-19 08:00:00" --until="2026-10-19 10:00:00" --contains=ctg_ledger_project --limit=100
+ * </pre>
+ * 匹配的记录按写入顺序（即调用完成顺序）逐行以 UTF-8 输出到标准输出。
+ */
+public class AuditJournalReader {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private AuditJournalReader() {
+    }
+
+    /**
+     * 按写入顺序读取目录下的全部记录，调用方负责关闭返回的流
+     */
+    public static Stream<AuditRecord> read(Path directory) throws IOException {
+        return read(directory, new LongAdder());
+    }
+
+    /**
+     * 同 {@link #read(Path)}，无法解析的行（如宕机时写了一半的记录）跳过并计入 malformed
+     */
+    public static Stream<AuditRecord> read(Path directory, LongAdder malformed) throws IOException {
+        List<Path> files = AuditJournalWriter.listFiles(directory);
+        return files.stream().flatMap(AuditJournalReader::lines)
+                .filter(line -> !line.isBlank())
+                .map(line -> parse(line, malformed))
+                .filter(Objects::nonNull);
+    }
+
+    private static AuditRecord parse(String line, LongAdder malformed) {
+        try {
+            return JsonUtils.toObject(line, AuditRecord.class);
+        } catch (RuntimeException e) {
+            malformed.increment();
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Filter filter = new Filter();
+        Path directory = Paths.get("logs/audit");
+        long limit = Long.MAX_VALUE;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("参数格式为 --name=value: " + arg);
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "dir" -> directory = Paths.get(value);
+                case "tool" -> filter.setTool(value);
+                case "outcome" -> filter.setOutcome(AuditRecord.Outcome.valueOf(value.toUpperCase()));
+                case "since" -> filter.setSince(toMillis(value));
+                case "until" -> filter.setUntil(toMillis(value));
+                case "contains" -> filter.setContains(value);
+                case "limit" -> limit = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("未知参数: " + arg);
+            }
+        }
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false, StandardCharsets.UTF_8);
+        LongAdder malformed = new LongAdder();
+        try (Stream<AuditRecord> records = read(directory, malformed)) {
+            records.filter(filter).limit(limit).forEach(r -> out.println(JsonUtils.toJsonString(r)));
+        }
+        out.flush();
+        if (malformed.sum() > 0) {
+            PrintStream err = new PrintStream(new FileOutputStream(FileDescriptor.err), true, StandardCharsets.UTF_8);
+            err.println("跳过 " + malformed.sum() + " 行无法解析的记录");
+        }
+    }
+
+    private static long toMillis(String time) {
+        return LocalDateTime.parse(time, TIME_FORMAT).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static Stream<String> lines(Path file) {
+        try {
+            // InputStreamReader 把非法字节替换为 U+FFFD，写了一半的多字节字符不会中断读取
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+            return reader.lines().onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 过滤条件，未设置的条件不参与匹配
+     */
+    @Data
+    public static class Filter implements Predicate<AuditRecord> {
+
+        private String tool;
+
+        private AuditRecord.Outcome outcome;
+
+        /**
+         * 起止时间（毫秒时间戳），包含起点不包含终点
+         */
+        private Long since;
+
+        private Long until;
+
+        /**
+         * 原始SQL或改写后SQL中包含的文本，不区分大小写
+         */
+        private String contains;
+
+        @Override
+        public boolean test(AuditRecord record) {
+            if (tool != null && !tool.equals(record.getTool())) {
+                return false;
+            }
+            if (outcome != null && outcome != record.getOutcome()) {
+                return false;
+            }
+            if (since != null && record.getTimestamp() < since) {
+                return false;
+            }
+            if (until != null && record.getTimestamp() >= until) {
+                return false;
+            }
+            if (contains != null) {
+                String needle = contains.toLowerCase();
+                return (record.getSql() != null && record.getSql().toLowerCase().contains(needle))
+                        || (record.getRewrittenSql() != null && record.getRewrittenSql().toLowerCase().contains(needle));
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.zcckj.mcp.mysql.audit;
+
+import com.zcckj.mcp.mysql.utils.JsonUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 审计日志文件写入器，只由后台写线程调用
+ * <p>
+ * 当前文件为 audit.jsonl，只追加写入；超过大小上限后改名为 audit-yyyyMMdd-HHmmss-SSS.jsonl，
+ * 只保留最近 maxFiles 个归档文件。一批记录编码后一次写入，fsync 由调用方按周期触发。
+ */
+@Slf4j
+public class AuditJournalWriter implements Closeable {
+
+    public static final String ACTIVE_FILE = "audit.jsonl";
+
+    private static final String ARCHIVE_PREFIX = "audit-";
+
+    private static final String SUFFIX = ".jsonl";
+
+    private static final DateTimeFormatter ARCHIVE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path directory;
+
+    private final long maxFileBytes;
+
+    private final int maxFiles;
+
+    private final ByteArrayOutputStream encoded = new ByteArrayOutputStream(64 * 1024);
+
+    private FileChannel channel;
+
+    @Getter
+    private long size;
+
+    /**
+     * 上次 fsync 之后是否有新写入
+     */
+    private boolean dirty;
+
+    public AuditJournalWriter(Path directory, long maxFileBytes, int maxFiles) throws IOException {
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        Files.createDirectories(directory);
+        open();
+    }
+
+    /**
+     * 追加一批记录，写入前若当前文件已超过大小上限先滚动
+     */
+    public void write(List<AuditRecord> records) throws IOException {
+        encoded.reset();
+        for (AuditRecord record : records) {
+            encoded.write(JsonUtils.toJsonString(record).getBytes(StandardCharsets.UTF_8));
+            encoded.write('\n');
+        }
+        if (!channel.isOpen()) {
+            // 上次滚动时重新打开失败，这里再试一次
+            open();
+        }
+        if (size > 0 && size + encoded.size() > maxFileBytes) {
+            rotate();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(encoded.toByteArray());
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer);
+        }
+        dirty = true;
+    }
+
+    /**
+     * 把已写入的内容刷到磁盘
+     */
+    public void force() throws IOException {
+        if (dirty) {
+            channel.force(false);
+            dirty = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            force();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * 按时间顺序列出目录下的审计日志：归档文件在前，当前文件在最后
+     */
+    public static List<Path> listFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>(listArchives(directory));
+        Path active = directory.resolve(ACTIVE_FILE);
+        if (Files.exists(active)) {
+            files.add(active);
+        }
+        return files;
+    }
+
+    private void open() throws IOException {
+        Path active = directory.resolve(ACTIVE_FILE);
+        channel = FileChannel.open(active,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+        if (size > 0 && !endsWithNewline(active, size)) {
+            // 上次宕机留下了写了一半的记录，另起一行，避免与新记录拼在同一行
+            log.warn("审计日志 {} 末尾有不完整的记录", active);
+            size += channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            dirty = true;
+        }
+    }
+
+    private static boolean endsWithNewline(Path file, long size) throws IOException {
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            reader.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /**
+     * 归档当前文件并打开新文件；归档失败时重新打开原文件继续追加，清理旧归档失败只告警
+     */
+    private void rotate() throws IOException {
+        try {
+            close();
+            String stamp = LocalDateTime.now().format(ARCHIVE_FORMAT);
+            Path archive = directory.resolve(ARCHIVE_PREFIX + stamp + SUFFIX);
+            for (int i = 1; Files.exists(archive); i++) {
+                archive = directory.resolve(ARCHIVE_PREFIX + stamp + "-" + i + SUFFIX);
+            }
+            Files.move(directory.resolve(ACTIVE_FILE), archive);
+        } finally {
+            open();
+        }
+        prune();
+    }
+
+    private void prune() {
+        List<Path> archives;
+        try {
+            archives = listArchives(directory);
+        } catch (IOException e) {
+            log.warn("列出审计日志归档失败，本次不清理: {}", e.getMessage());
+            return;
+        }
+        for (int i = 0; i < archives.size() - maxFiles; i++) {
+            try {
+                Files.deleteIfExists(archives.get(i));
+            } catch (IOException e) {
+                log.warn("删除过期审计日志归档 {} 失败: {}", archives.get(i), e.getMessage());
+            }
+        }
+    }
+
+    private static List<Path> listArchives(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // 文件名中的时间戳定长，去掉后缀按名称排序即按时间排序（同一毫秒的 -1、-2 排在后面）
+            return files.map(f -> f.getFileName().toString())
+                    .filter(name -> name.startsWith(ARCHIVE_PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> name.substring(0, name.length() - SUFFIX.length()))
+                    .sorted()
+                    .map(name -> directory.resolve(name + SUFFIX))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.zcckj.mcp.mysql.audit;
+
+import com.zcckj.mcp.mysql.model.SqlParameter;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一次工具调用的审计记录，按 JSON 行写入审计日志
+ */
+@Data
+public class AuditRecord {
+
+    /**
+     * 调用开始时间（毫秒时间戳）
+     */
+    private long timestamp;
+
+    // 工具名称
+    private String tool;
+
+    // 客户端提交的原始SQL
+    private String sql;
+
+    // 校验改写（追加或收紧 LIMIT）后实际执行的SQL
+    private String rewrittenSql;
+
+    // 参数化查询的参数
+    private List<SqlParameter> params;
+
+    private Outcome outcome;
+
+    // 返回行数
+    private Integer rows;
+
+    private long elapsedMs;
+
+    // 拒绝原因或错误信息
+    private String message;
+
+    public enum Outcome {
+        OK,
+        REJECTED,
+        ERROR
+    }
+}
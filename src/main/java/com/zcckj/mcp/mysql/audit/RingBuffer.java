@@ -0,0 +1,108 @@
+package com.zcckj.mcp.mysql.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形缓冲区，多生产者、单消费者
+ * <p>
+ * 每个槽位带一个序号：序号等于生产者游标时槽位可写，等于游标 + 1 时可读。
+ * 生产者只对写游标做一次 CAS 抢占槽位，满时立即返回 false，不加锁也不等待；
+ * 消费者只有一个线程，读游标不需要 CAS。
+ */
+public class RingBuffer<E> {
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+
+    private volatile long consumerIndex;
+
+    /**
+     * @param capacity 容量，向上取整为 2 的幂
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("容量至少为 2: " + capacity);
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 放入一个元素，可被多个线程并发调用
+     *
+     * @return 缓冲区已满时返回 false
+     */
+    public boolean offer(E element) {
+        long pos = producerIndex.get();
+        for (; ; ) {
+            int slot = (int) pos & mask;
+            long diff = sequences.get(slot) - pos;
+            if (diff == 0) {
+                if (producerIndex.compareAndSet(pos, pos + 1)) {
+                    elements.lazySet(slot, element);
+                    // 发布序号之后消费者才能看到该槽位，元素写入对消费者可见
+                    sequences.lazySet(slot, pos + 1);
+                    return true;
+                }
+                pos = producerIndex.get();
+            } else if (diff < 0) {
+                // 槽位还没被消费者释放，缓冲区已满
+                return false;
+            } else {
+                // 其他生产者已抢到该位置
+                pos = producerIndex.get();
+            }
+        }
+    }
+
+    /**
+     * 取出至多 max 个元素追加到 target，只能由消费者线程调用
+     *
+     * @return 取出的个数
+     */
+    public int drainTo(List<? super E> target, int max) {
+        long pos = consumerIndex;
+        int count = 0;
+        while (count < max) {
+            int slot = (int) pos & mask;
+            if (sequences.get(slot) != pos + 1) {
+                break;
+            }
+            target.add(elements.get(slot));
+            elements.lazySet(slot, null);
+            // 槽位序号推进一圈，交还给生产者
+            sequences.lazySet(slot, pos + capacity);
+            pos++;
+            count++;
+        }
+        consumerIndex = pos;
+        return count;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 当前元素个数的近似值
+     */
+    public int size() {
+        long size = producerIndex.get() - consumerIndex;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+}
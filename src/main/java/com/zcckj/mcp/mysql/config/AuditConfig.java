@@ -0,0 +1,71 @@
+package com.zcckj.mcp.mysql.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 审计日志配置
+ * 工具调用把审计记录放入内存环形缓冲区后立即返回，由后台线程批量追加写入 JSONL 文件
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "config.audit")
+public class AuditConfig {
+
+    /**
+     * 默认关闭，开启时需保证目录可写；目录不可用时只记录错误并关闭审计，不影响服务启动
+     */
+    private boolean enabled = false;
+
+    /**
+     * 相对路径基于进程工作目录
+     */
+    private String directory = "logs/audit";
+
+    /**
+     * 环形缓冲区容量，向上取整为 2 的幂
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * 每批最多写入的记录数
+     */
+    private int batchSize = 512;
+
+    /**
+     * 缓冲区为空时写线程的等待间隔（毫秒），也是记录落到文件的最大延迟
+     */
+    private long flushIntervalMs = 200;
+
+    /**
+     * fsync 间隔（毫秒），宕机时最多丢失这段时间内写入的记录
+     */
+    private long fsyncIntervalMs = 1000;
+
+    /**
+     * 单个文件大小上限，超过后滚动
+     */
+    private long maxFileBytes = 64L * 1024 * 1024;
+
+    /**
+     * 保留的归档文件个数
+     */
+    private int maxFiles = 30;
+
+    /**
+     * 缓冲区满时的处理方式
+     */
+    private OverflowPolicy overflow = OverflowPolicy.DROP;
+
+    public enum OverflowPolicy {
+        /**
+         * 丢弃记录并计数，工具调用不受影响
+         */
+        DROP,
+        /**
+         * 等待写线程腾出空间，审计完整但工具调用会被拖慢
+         */
+        BLOCK
+    }
+}
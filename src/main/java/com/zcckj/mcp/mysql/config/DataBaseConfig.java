@@ -8,6 +8,7 @@ import org.springframework.context.annotation.Configuration;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zcckj.mcp.mysql.pool.ConnectionWaitTracker;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -24,10 +25,29 @@ public class DataBaseConfig {
     private String password;
     private String database;
     private String driverClassName;
+    /**
+     * 是否延迟初始化连接池，开启后启动时不建立连接，第一次获取连接时才初始化
+     */
+    private boolean lazyInit;
+    /**
+     * 每个连接在驱动端缓存的 PreparedStatement 个数（仅 MySQL）
+     */
+    private int prepStmtCacheSize = 250;
+    /**
+     * spring.datasource.hikari 下的连接池参数；最大连接数和最少空闲数是初始值，开启自适应调整后会在运行时变化
+     */
+    private HikariConfig hikari = new HikariConfig();
 
     @Bean
-    public DataSource dataSource() {
+    public ConnectionWaitTracker connectionWaitTracker() {
+        return new ConnectionWaitTracker();
+    }
+
+    @Bean
+    public DataSource dataSource(ConnectionWaitTracker connectionWaitTracker) {
         HikariConfig config = new HikariConfig();
+        hikari.copyStateTo(config);
+        config.setMetricsTrackerFactory(connectionWaitTracker);
         config.setJdbcUrl(url);
         config.setUsername(username);
         config.setPassword(password);
@@ -37,6 +57,19 @@ public class DataBaseConfig {
         if (url == null || url.isEmpty()) {
             throw new IllegalArgumentException("JDBC URL is required.");
         }
+        if (url.startsWith("jdbc:mysql:")) {
+            // 驱动端缓存 PreparedStatement 并使用服务端预编译，同一模板在每个连接上只解析一次
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(prepStmtCacheSize));
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+        }
+        if (lazyInit) {
+            // 无参构造的 HikariDataSource 在第一次 getConnection 时才创建连接池
+            HikariDataSource dataSource = new HikariDataSource();
+            config.copyStateTo(dataSource);
+            return dataSource;
+        }
         return new HikariDataSource(config);
     }
 }
\ No newline at end of file
@@ -18,6 +18,18 @@ public class DataBaseLimitConfig {
     @Value("${config.database.read-rows-limit}")
     private String limitRowsNumberStr;
 
+    /**
+     * 启动完成后是否在后台预热 SQL 解析器
+     */
+    @Value("${config.database.parser-warmup:true}")
+    private boolean parserWarmup;
+
+    /**
+     * 参数化查询模板缓存条数
+     */
+    @Value("${config.database.prepared-cache-size:256}")
+    private int preparedCacheSize;
+
     public List<String> getReadOnlyTables() {
         return Optional.ofNullable(limitTables)
                 .filter(s -> !s.isEmpty())
@@ -0,0 +1,75 @@
+package com.zcckj.mcp.mysql.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 连接池自适应配置
+ * 按工具调用并发、获取连接的等待时间以及 MySQL 的 Threads_running / max_connections 在上下限之间调整连接池大小
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "config.pool-sizing")
+public class PoolSizingConfig {
+
+    /**
+     * 默认关闭，开启后每个实例的连接数可能增长到 maxPoolSize
+     */
+    private boolean enabled = false;
+
+    /**
+     * 最大连接数的下限，同时也是低峰期保留的最少空闲连接数
+     */
+    private int minPoolSize = 2;
+
+    /**
+     * 最大连接数的上限
+     */
+    private int maxPoolSize = 40;
+
+    /**
+     * 采样间隔（毫秒），记录窗口内的并发峰值和等待连接的线程数
+     */
+    private long sampleIntervalMs = 1000;
+
+    /**
+     * 调整间隔（毫秒），每个窗口做一次决策
+     */
+    private long adjustIntervalMs = 30000;
+
+    /**
+     * 平均获取连接等待超过该值（毫秒）视为连接不足
+     */
+    private long waitThresholdMs = 20;
+
+    /**
+     * 每次扩容至少增加的连接数
+     */
+    private int growStep = 4;
+
+    /**
+     * 每次缩容最多减少的连接数
+     */
+    private int shrinkStep = 2;
+
+    /**
+     * 在并发峰值之上预留的连接数
+     */
+    private int headroom = 2;
+
+    /**
+     * 连续多少个窗口负载都低于当前容量才缩容，避免抖动
+     */
+    private int shrinkAfterWindows = 4;
+
+    /**
+     * 本服务最多占用 MySQL max_connections 的比例
+     */
+    private double maxConnectionsShare = 0.25;
+
+    /**
+     * MySQL Threads_running 达到该值时认为数据库已饱和，不再扩容
+     */
+    private int threadsRunningHigh = 64;
+}
@@ -0,0 +1,117 @@
+package com.zcckj.mcp.mysql.config;
+
+import com.zcckj.mcp.mysql.McpServerApplication;
+import com.zcckj.mcp.mysql.model.TextContent;
+import com.zcckj.mcp.mysql.service.MysqlMcpServerService;
+import com.zcckj.mcp.mysql.service.ResultSpillService;
+import com.zcckj.mcp.mysql.utils.JsonUtils;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.server.McpServerFeatures.AsyncResourceSpecification;
+import io.modelcontextprotocol.server.McpServerFeatures.AsyncToolSpecification;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.mcp.McpToolUtils;
+import org.springframework.ai.tool.method.MethodToolCallbackProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 异步（WebFlux）模式下的工具注册
+ * 工具调用不在事件循环线程上执行，而是投递到有界的 JDBC 调度器；
+ * 每个会话的在途调用数有上限，超出时立即返回繁忙结果，避免结果在 SSE 推送队列中无限堆积
+ */
+@Slf4j
+@Configuration
+@ConfigurationProperties(prefix = "config.reactive")
+@ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "ASYNC")
+@Getter
+@Setter
+public class ReactiveToolConfig {
+
+    /**
+     * JDBC 调度线程数，建议与连接池最大连接数（开启自适应时为 config.pool-sizing.max-pool-size）一致
+     */
+    private int jdbcThreads = 20;
+
+    /**
+     * 调度器排队任务上限，超过后新调用直接拒绝
+     */
+    private int queuedTasks = 1000;
+
+    /**
+     * 单个会话同时在途的工具调用上限
+     */
+    private int maxInflightPerSession = 4;
+
+    /**
+     * 会话 -> 在途调用许可，会话对象被回收后自动移除
+     */
+    private final Map<McpAsyncServerExchange, Semaphore> sessionPermits =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler() {
+        log.info("------- mcp async tools: jdbc threads {}, queued tasks {}, inflight per session {}",
+                jdbcThreads, queuedTasks, maxInflightPerSession);
+        return Schedulers.newBoundedElastic(jdbcThreads, queuedTasks, "mcp-jdbc");
+    }
+
+    @Bean
+    public List<AsyncToolSpecification> dbAsyncTools(MysqlMcpServerService mySQLMCPServerService,
+                                                     Scheduler jdbcScheduler) {
+        return Arrays.stream(MethodToolCallbackProvider.builder().toolObjects(mySQLMCPServerService).build()
+                        .getToolCallbacks())
+                .map(McpToolUtils::toSyncToolSpecification)
+                .map(sync -> toAsync(sync, jdbcScheduler))
+                .toList();
+    }
+
+    /**
+     * 落盘结果集的分页资源，读文件同样放到 JDBC 调度器上，不阻塞事件循环
+     */
+    @Bean
+    public List<AsyncResourceSpecification> resultAsyncResources(ResultSpillService resultSpillService,
+                                                                 Scheduler jdbcScheduler) {
+        return List.of(new AsyncResourceSpecification(
+                McpServerApplication.toMcpResource(resultSpillService.resourceTemplate()),
+                (exchange, request) -> Mono.fromCallable(() -> resultSpillService.read(request.uri()))
+                        .subscribeOn(jdbcScheduler)));
+    }
+
+    private AsyncToolSpecification toAsync(SyncToolSpecification sync, Scheduler jdbcScheduler) {
+        // 许可在订阅时获取、在同一订阅结束时释放；组装出的 Mono 未被订阅时不占用许可，重复订阅各自计数
+        return new AsyncToolSpecification(sync.tool(), (exchange, arguments) -> Mono.defer(() -> {
+            Semaphore permits = sessionPermits.computeIfAbsent(exchange, e -> new Semaphore(maxInflightPerSession));
+            if (!permits.tryAcquire()) {
+                log.warn("会话在途工具调用超过上限 {}，拒绝调用 {}", maxInflightPerSession, sync.tool().name());
+                return Mono.just(busy("当前会话并发调用过多，请等待前面的查询返回后重试"));
+            }
+            return Mono.fromCallable(() -> sync.call().apply(new McpSyncServerExchange(exchange), arguments))
+                    .subscribeOn(jdbcScheduler)
+                    .onErrorResume(RejectedExecutionException.class, e -> {
+                        log.warn("JDBC 调度队列已满，拒绝调用 {}", sync.tool().name());
+                        return Mono.just(busy("服务繁忙，请稍后重试"));
+                    })
+                    .doFinally(signal -> permits.release());
+        }));
+    }
+
+    private static McpSchema.CallToolResult busy(String message) {
+        return new McpSchema.CallToolResult(
+                List.of(new McpSchema.TextContent(JsonUtils.toJsonString(new TextContent(message, "text")))),
+                true);
+    }
+}
@@ -0,0 +1,55 @@
+package com.zcckj.mcp.mysql.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预聚合（rollup）配置
+ * 每个 rollup 按 dimensions 分组，对 measures 中的每一列维护 SUM/COUNT/MIN/MAX，
+ * 可以覆盖维度子集上的 GROUP BY、维度上的等值/IN 过滤以及 SUM/COUNT/AVG/MIN/MAX 聚合
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "config.rollup")
+public class RollupConfig {
+
+    private boolean enabled = false;
+
+    /**
+     * 刷新间隔（毫秒），本地应答的数据最多落后 MySQL 一个刷新周期
+     */
+    private long refreshIntervalMs = 60000;
+
+    /**
+     * 配置了 watermark 的 rollup 每隔多少次增量刷新做一次全量重建，用于纠正更新/删除带来的偏差
+     */
+    private int fullRefreshCycles = 10;
+
+    /**
+     * 单个 rollup 允许的最大分组数，超过后该 rollup 不加载，查询全部回退到 MySQL
+     */
+    private int maxCells = 100000;
+
+    private List<RollupDefinition> definitions = new ArrayList<>();
+
+    @Data
+    public static class RollupDefinition {
+        private String name;
+
+        private String table;
+
+        private List<String> dimensions = new ArrayList<>();
+
+        private List<String> measures = new ArrayList<>();
+
+        /**
+         * 单调递增列（如自增主键、创建时间），配置后按 (上次水位, 当前最大值] 增量聚合；
+         * 仅适用于只追加的表
+         */
+        private String watermarkColumn;
+    }
+}
@@ -0,0 +1,34 @@
+package com.zcckj.mcp.mysql.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 小表快照配置
+ * 行数和估算内存都低于阈值的授权表会被整表加载到内存，简单单表查询直接在本地应答
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "config.snapshot")
+public class SnapshotConfig {
+
+    private boolean enabled = false;
+
+    /**
+     * 刷新间隔（毫秒），本地应答的数据最多落后 MySQL 一个刷新周期
+     */
+    private long refreshIntervalMs = 300000;
+
+    /**
+     * 候选表，为空时所有授权表都作为候选
+     */
+    private List<String> tables = new ArrayList<>();
+
+    private int maxRows = 10000;
+
+    private long maxBytes = 8 * 1024 * 1024;
+}
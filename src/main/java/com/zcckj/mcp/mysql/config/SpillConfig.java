@@ -0,0 +1,56 @@
+package com.zcckj.mcp.mysql.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 大结果集落盘配置
+ * export_query_result 的结果以二进制行格式写入本地临时目录，客户端通过 MCP 资源分页读取
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "config.spill")
+public class SpillConfig {
+
+    /**
+     * 导出会绕过 read-rows-limit 读取大量数据，默认关闭，需显式开启
+     */
+    private boolean enabled = false;
+
+    /**
+     * 落盘基础目录，为空时使用 java.io.tmpdir 下的 mysql-mcp-spill；
+     * 每个进程在其下使用独立的 spill-{pid}-{随机串} 子目录，退出时删除
+     */
+    private String directory;
+
+    /**
+     * 单个结果集最多写入的行数
+     */
+    private int maxRows = 100000;
+
+    /**
+     * 单个结果集文件大小上限，超过后截断
+     */
+    private long maxBytes = 256L * 1024 * 1024;
+
+    /**
+     * 每页行数
+     */
+    private int pageRows = 500;
+
+    /**
+     * 结果集在最后一次访问后保留的时间（毫秒）
+     */
+    private long ttlMs = 1800000;
+
+    /**
+     * 同时保留的结果集个数，超过后淘汰最久未访问的
+     */
+    private int maxResults = 20;
+
+    /**
+     * 过期清理间隔（毫秒）
+     */
+    private long cleanupIntervalMs = 60000;
+}
@@ -10,6 +10,8 @@ import lombok.Data;
 @Builder
 public class Resource {
 
+    // 资源地址，可以是带 {变量} 的模板
+    private String uri;
 
     // 资源名称
     private String name;
@@ -18,4 +20,7 @@ public class Resource {
 
     // 资源描述
     private String description;
-}
\ No newline at end of file
+
+    // 资源内容类型
+    private String mimeType;
+}
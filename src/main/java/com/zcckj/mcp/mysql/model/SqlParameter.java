@@ -0,0 +1,21 @@
+package com.zcckj.mcp.mysql.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.ai.tool.annotation.ToolParam;
+
+/**
+ * 参数化查询的参数，按顺序绑定到SQL中的 ? 占位符
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlParameter {
+
+    @ToolParam(description = "参数类型：string、long、decimal、double、boolean、date（yyyy-MM-dd）、datetime（yyyy-MM-dd HH:mm:ss）、null")
+    private String type;
+
+    @ToolParam(description = "参数值的字符串形式，type 为 null 时可省略", required = false)
+    private String value;
+}
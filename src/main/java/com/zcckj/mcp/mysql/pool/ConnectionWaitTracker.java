@@ -0,0 +1,124 @@
+package com.zcckj.mcp.mysql.pool;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计 Hikari 获取连接的等待时间和超时次数，供连接池自适应调整使用
+ * <p>
+ * Hikari 每个连接池只允许设置一次 MetricsTrackerFactory，需要同时采集的其他统计（如压测工具）
+ * 通过 {@link #setDelegate(MetricsTrackerFactory)} 挂在后面，事件会原样转发。
+ */
+public class ConnectionWaitTracker implements MetricsTrackerFactory {
+
+    private final LongAdder acquisitions = new LongAdder();
+
+    private final LongAdder waitNanos = new LongAdder();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private String poolName;
+
+    private PoolStats poolStats;
+
+    private MetricsTrackerFactory delegateFactory;
+
+    private volatile IMetricsTracker delegate;
+
+    @Override
+    public synchronized IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        if (delegateFactory != null) {
+            delegate = delegateFactory.create(poolName, poolStats);
+        }
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                IMetricsTracker d = delegate;
+                if (d != null) {
+                    d.recordConnectionCreatedMillis(connectionCreatedMillis);
+                }
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                waitNanos.add(elapsedAcquiredNanos);
+                maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+                IMetricsTracker d = delegate;
+                if (d != null) {
+                    d.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+                }
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                IMetricsTracker d = delegate;
+                if (d != null) {
+                    d.recordConnectionUsageMillis(elapsedBorrowedMillis);
+                }
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+                IMetricsTracker d = delegate;
+                if (d != null) {
+                    d.recordConnectionTimeout();
+                }
+            }
+
+            @Override
+            public void close() {
+                IMetricsTracker d = delegate;
+                if (d != null) {
+                    d.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * 挂接另一个统计，连接池已启动时立即创建其 tracker
+     */
+    public synchronized void setDelegate(MetricsTrackerFactory factory) {
+        this.delegateFactory = factory;
+        this.delegate = factory != null && poolStats != null ? factory.create(poolName, poolStats) : null;
+    }
+
+    /**
+     * 取出上次调用以来的等待统计并清零
+     */
+    public WaitStats drain() {
+        long count = acquisitions.sumThenReset();
+        long total = waitNanos.sumThenReset();
+        long max = maxWaitNanos.getAndSet(0);
+        return new WaitStats(count,
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(total / count),
+                TimeUnit.NANOSECONDS.toMillis(max),
+                timeouts.sumThenReset());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class WaitStats {
+
+        private final long acquisitions;
+
+        private final long avgWaitMs;
+
+        private final long maxWaitMs;
+
+        private final long timeouts;
+    }
+}
@@ -0,0 +1,38 @@
+package com.zcckj.mcp.mysql.pool;
+
+/**
+ * 连接池自适应调整的 JMX 指标，ObjectName 为 com.zcckj.mcp.mysql:type=PoolSizing,pool={poolName}
+ */
+public interface PoolSizingMXBean {
+
+    int getMaximumPoolSize();
+
+    int getMinimumIdle();
+
+    /**
+     * 当前同时执行的工具调用数
+     */
+    int getInflightCalls();
+
+    /**
+     * 启动以来实际改变连接池大小的次数
+     */
+    long getResizeCount();
+
+    String getLastDecision();
+
+    /**
+     * 最近的决策记录，最新的在最后
+     */
+    String[] getRecentDecisions();
+
+    /**
+     * 最近一次查询到的 MySQL Threads_running，未知时为 -1
+     */
+    int getThreadsRunning();
+
+    /**
+     * 最近一次查询到的 MySQL max_connections，未知时为 -1
+     */
+    int getMaxConnections();
+}
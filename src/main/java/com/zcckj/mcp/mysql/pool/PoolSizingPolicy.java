@@ -0,0 +1,122 @@
+package com.zcckj.mcp.mysql.pool;
+
+import com.zcckj.mcp.mysql.config.PoolSizingConfig;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+
+/**
+ * 连接池大小决策
+ * <p>
+ * 每个窗口根据观测值给出新的最大连接数和最少空闲连接数：
+ * <ul>
+ *     <li>出现连接等待（平均等待超过阈值、有线程排队或获取超时）且 MySQL 未饱和时扩容，至少增加 growStep，且不低于并发峰值 + headroom；</li>
+ *     <li>MySQL Threads_running 已达到阈值时只保持不扩，增加连接只会加剧数据库端的争用；</li>
+ *     <li>连续 shrinkAfterWindows 个窗口并发峰值 + headroom 都低于当前容量时缩容，每次最多减少 shrinkStep；</li>
+ *     <li>结果限制在 [minPoolSize, maxPoolSize] 内，并且不超过 max_connections x maxConnectionsShare。</li>
+ * </ul>
+ * 最少空闲连接数跟随并发峰值，低峰期空闲连接在 idle-timeout 后被 Hikari 回收。
+ * 非线程安全，只由调整任务调用。
+ */
+public class PoolSizingPolicy {
+
+    private final PoolSizingConfig config;
+
+    /**
+     * 连续低负载的窗口数
+     */
+    private int quietWindows;
+
+    public PoolSizingPolicy(PoolSizingConfig config) {
+        this.config = config;
+    }
+
+    public Decision decide(Observation o) {
+        int current = o.getMaximumPoolSize();
+        int demand = Math.max(o.getPeakInflight(), o.getPeakActive());
+        int ceiling = config.getMaxPoolSize();
+        if (o.getMaxConnections() != null) {
+            ceiling = Math.min(ceiling, (int) (o.getMaxConnections() * config.getMaxConnectionsShare()));
+        }
+        ceiling = Math.max(ceiling, config.getMinPoolSize());
+
+        boolean waiting = o.getTimeouts() > 0 || o.getAvgWaitMs() >= config.getWaitThresholdMs() || o.getPeakAwaiting() > 0;
+        boolean mysqlBusy = o.getThreadsRunning() != null && o.getThreadsRunning() >= config.getThreadsRunningHigh();
+
+        int target = current;
+        String reason;
+        if (waiting && mysqlBusy) {
+            quietWindows = 0;
+            reason = String.format("连接等待（平均 %d ms，排队 %d，超时 %d），但 MySQL Threads_running=%d 已饱和，不扩容",
+                    o.getAvgWaitMs(), o.getPeakAwaiting(), o.getTimeouts(), o.getThreadsRunning());
+        } else if (waiting) {
+            quietWindows = 0;
+            target = Math.max(current + config.getGrowStep(), demand + config.getHeadroom());
+            reason = String.format("连接等待（平均 %d ms，排队 %d，超时 %d），并发峰值 %d，扩容",
+                    o.getAvgWaitMs(), o.getPeakAwaiting(), o.getTimeouts(), demand);
+        } else if (demand + config.getHeadroom() < current) {
+            quietWindows++;
+            if (quietWindows >= config.getShrinkAfterWindows()) {
+                quietWindows = 0;
+                target = Math.max(demand + config.getHeadroom(), current - config.getShrinkStep());
+                reason = String.format("连续 %d 个窗口并发峰值低于容量（峰值 %d），缩容", config.getShrinkAfterWindows(), demand);
+            } else {
+                reason = String.format("并发峰值 %d 低于容量，第 %d/%d 个低负载窗口", demand, quietWindows,
+                        config.getShrinkAfterWindows());
+            }
+        } else {
+            quietWindows = 0;
+            reason = String.format("并发峰值 %d，无连接等待，保持", demand);
+        }
+
+        if (target > ceiling) {
+            target = ceiling;
+            reason += String.format("（上限 %d%s）", ceiling,
+                    o.getMaxConnections() == null ? "" : "，max_connections=" + o.getMaxConnections());
+        }
+        target = Math.max(target, config.getMinPoolSize());
+        int minimumIdle = Math.min(target, Math.max(config.getMinPoolSize(), demand));
+        return new Decision(target, minimumIdle, reason);
+    }
+
+    /**
+     * 一个窗口内的观测值
+     */
+    @Data
+    @Builder
+    public static class Observation {
+
+        // 当前最大连接数
+        private int maximumPoolSize;
+
+        // 窗口内同时执行的工具调用峰值
+        private int peakInflight;
+
+        // 窗口内活跃连接峰值
+        private int peakActive;
+
+        // 窗口内等待连接的线程数峰值
+        private int peakAwaiting;
+
+        private long avgWaitMs;
+
+        private long timeouts;
+
+        // MySQL 状态，查询失败或非 MySQL 数据源时为 null
+        private Integer threadsRunning;
+
+        private Integer maxConnections;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Decision {
+
+        private final int maximumPoolSize;
+
+        private final int minimumIdle;
+
+        private final String reason;
+    }
+}
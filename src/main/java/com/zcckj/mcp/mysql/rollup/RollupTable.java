@@ -0,0 +1,681 @@
+package com.zcckj.mcp.mysql.rollup;
+
+import com.zcckj.mcp.mysql.config.RollupConfig.RollupDefinition;
+import com.zcckj.mcp.mysql.utils.SqlValueUtils;
+import lombok.Getter;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.*;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 单个预聚合表
+ * 以维度取值为 key，保存每个分组的行数以及各度量列的 SUM/COUNT/MIN/MAX。
+ * 分组快照整体替换发布，查询线程无需加锁即可读取。
+ * 字符串维度只在排序规则可以本地精确复现（*_bin）时参与过滤和重新分组，不参与排序，其余交给 MySQL。
+ */
+public class RollupTable {
+
+    static final String ROWS_LABEL = "__rows";
+
+    private final RollupDefinition definition;
+
+    private final List<String> dimensionKeys;
+
+    private final List<String> measureKeys;
+
+    /**
+     * 各维度列的排序规则，非字符列或未知时为 null
+     */
+    private volatile String[] dimensionCollations;
+
+    /**
+     * 未加载时为 null
+     */
+    private volatile Map<List<Object>, RollupCell> cells;
+
+    @Getter
+    private volatile Object watermark;
+
+    @Getter
+    private volatile long refreshedAt;
+
+    /**
+     * 上次全量重建以来的增量刷新次数
+     */
+    @Getter
+    private int incrementalRefreshes;
+
+    /**
+     * 分组数超过上限后停用，不再刷新也不参与应答
+     */
+    @Getter
+    private volatile boolean disabled;
+
+    public RollupTable(RollupDefinition definition) {
+        this.definition = definition;
+        this.dimensionKeys = definition.getDimensions().stream()
+                .map(SqlValueUtils::identifierKey)
+                .collect(Collectors.toList());
+        this.measureKeys = definition.getMeasures().stream()
+                .map(SqlValueUtils::identifierKey)
+                .collect(Collectors.toList());
+        this.dimensionCollations = new String[dimensionKeys.size()];
+    }
+
+    public String getName() {
+        return definition.getName();
+    }
+
+    public String getTable() {
+        return definition.getTable();
+    }
+
+    public String getWatermarkColumn() {
+        return definition.getWatermarkColumn();
+    }
+
+    /**
+     * 更新维度列的排序规则
+     *
+     * @param collations 小写列名 -> information_schema.COLUMNS.COLLATION_NAME
+     */
+    public void setCollations(Map<String, String> collations) {
+        String[] resolved = new String[dimensionKeys.size()];
+        for (int i = 0; i < resolved.length; i++) {
+            resolved[i] = collations.get(dimensionKeys.get(i));
+        }
+        dimensionCollations = resolved;
+    }
+
+    public boolean isLoaded() {
+        return cells != null;
+    }
+
+    public int size() {
+        Map<List<Object>, RollupCell> snapshot = cells;
+        return snapshot == null ? 0 : snapshot.size();
+    }
+
+    public String buildAggregateSql(String database, String whereClause) {
+        return buildAggregateSql(database, whereClause, 0);
+    }
+
+    /**
+     * 生成刷新用的聚合 SQL
+     *
+     * @param database    数据库名
+     * @param whereClause 过滤条件，可为 null
+     * @param limit       最多返回的分组数，不大于 0 时不限制
+     */
+    public String buildAggregateSql(String database, String whereClause, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (String dimension : definition.getDimensions()) {
+            sql.append(quote(dimension)).append(", ");
+        }
+        sql.append("COUNT(*) AS ").append(quote(ROWS_LABEL));
+        for (String measure : definition.getMeasures()) {
+            String column = quote(measure);
+            sql.append(", SUM(").append(column).append(") AS ").append(quote(measure + "__sum"))
+                    .append(", COUNT(").append(column).append(") AS ").append(quote(measure + "__cnt"))
+                    .append(", MIN(").append(column).append(") AS ").append(quote(measure + "__min"))
+                    .append(", MAX(").append(column).append(") AS ").append(quote(measure + "__max"));
+        }
+        sql.append(" FROM ").append(quote(database)).append('.').append(quote(definition.getTable()));
+        if (whereClause != null) {
+            sql.append(" WHERE ").append(whereClause);
+        }
+        if (!definition.getDimensions().isEmpty()) {
+            sql.append(" GROUP BY ").append(definition.getDimensions().stream()
+                    .map(RollupTable::quote)
+                    .collect(Collectors.joining(", ")));
+        }
+        if (limit > 0) {
+            sql.append(" LIMIT ").append(limit);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 用全量聚合结果替换当前快照
+     */
+    public synchronized void replace(List<Map<String, Object>> rows, Object watermark) {
+        Map<List<Object>, RollupCell> fresh = new HashMap<>(Math.max(16, rows.size() * 2));
+        for (Map<String, Object> row : rows) {
+            fresh.merge(keyOf(row), cellOf(row), RollupCell::merge);
+        }
+        publish(fresh, watermark);
+        incrementalRefreshes = 0;
+    }
+
+    /**
+     * 将增量聚合结果合并进当前快照（写时复制）
+     */
+    public synchronized void merge(List<Map<String, Object>> rows, Object watermark) {
+        Map<List<Object>, RollupCell> current = cells;
+        Map<List<Object>, RollupCell> next = new HashMap<>(Math.max(16, (current.size() + rows.size()) * 2));
+        current.forEach((key, cell) -> next.put(key, cell.copy()));
+        for (Map<String, Object> row : rows) {
+            next.merge(keyOf(row), cellOf(row), RollupCell::merge);
+        }
+        publish(next, watermark);
+        incrementalRefreshes++;
+    }
+
+    /**
+     * 水位未变化时仅更新刷新时间
+     */
+    public synchronized void touch() {
+        refreshedAt = System.currentTimeMillis();
+        incrementalRefreshes++;
+    }
+
+    public synchronized void clear() {
+        cells = null;
+        watermark = null;
+        incrementalRefreshes = 0;
+    }
+
+    /**
+     * 停用并释放已加载的分组
+     */
+    public synchronized void disable() {
+        disabled = true;
+        clear();
+    }
+
+    private void publish(Map<List<Object>, RollupCell> snapshot, Object watermark) {
+        this.watermark = watermark;
+        this.refreshedAt = System.currentTimeMillis();
+        this.cells = snapshot;
+    }
+
+    private List<Object> keyOf(Map<String, Object> row) {
+        Object[] key = new Object[dimensionKeys.size()];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = row.get(definition.getDimensions().get(i));
+        }
+        return Arrays.asList(key);
+    }
+
+    private RollupCell cellOf(Map<String, Object> row) {
+        RollupCell cell = new RollupCell(measureKeys.size());
+        cell.rows = ((Number) row.get(ROWS_LABEL)).longValue();
+        for (int i = 0; i < measureKeys.size(); i++) {
+            String measure = definition.getMeasures().get(i);
+            cell.sums[i] = SqlValueUtils.toBigDecimal(row.get(measure + "__sum"));
+            cell.counts[i] = ((Number) row.get(measure + "__cnt")).longValue();
+            cell.mins[i] = row.get(measure + "__min");
+            cell.maxs[i] = row.get(measure + "__max");
+        }
+        return cell;
+    }
+
+    /**
+     * 尝试用预聚合数据应答查询
+     *
+     * @param select 单表 SELECT，调用方已完成表名和 LIMIT 校验
+     * @return 与 JdbcTemplate.queryForList 结构一致的结果；查询未被覆盖时返回 null
+     */
+    public List<Map<String, Object>> answer(PlainSelect select) {
+        Map<List<Object>, RollupCell> snapshot = cells;
+        if (snapshot == null || disabled) {
+            return null;
+        }
+        QueryPlan plan = plan(select);
+        if (plan == null) {
+            return null;
+        }
+        try {
+            return execute(plan, snapshot);
+        } catch (IllegalArgumentException e) {
+            // 过滤值与维度类型不一致等无法本地判定的情况，交给 MySQL
+            return null;
+        }
+    }
+
+    private QueryPlan plan(PlainSelect select) {
+        if (select.getJoins() != null && !select.getJoins().isEmpty()
+                || select.getDistinct() != null
+                || select.getHaving() != null
+                || select.getIntoTables() != null
+                || select.getTop() != null
+                || select.getFetch() != null
+                || select.getOffset() != null) {
+            return null;
+        }
+
+        QueryPlan plan = new QueryPlan();
+
+        // 1. 输出列
+        boolean hasAggregate = false;
+        for (SelectItem item : select.getSelectItems()) {
+            if (!(item instanceof SelectExpressionItem)) {
+                return null;
+            }
+            SelectExpressionItem expressionItem = (SelectExpressionItem) item;
+            Output output = resolveOutput(expressionItem.getExpression());
+            if (output == null) {
+                return null;
+            }
+            output.label = expressionItem.getAlias() != null
+                    ? SqlValueUtils.unquote(expressionItem.getAlias().getName())
+                    : defaultLabel(expressionItem.getExpression());
+            output.expressionText = expressionItem.getExpression().toString();
+            hasAggregate |= output.kind != OutputKind.DIMENSION;
+            plan.outputs.add(output);
+        }
+
+        // 2. 分组（支持按维度列或输出别名分组）
+        GroupByElement groupBy = select.getGroupBy();
+        if (groupBy != null) {
+            if (groupBy.getGroupingSets() != null && !groupBy.getGroupingSets().isEmpty()) {
+                return null;
+            }
+            for (Expression expression : groupBy.getGroupByExpressionList().getExpressions()) {
+                int dimension = resolveGroupDimension(expression, plan.outputs);
+                if (dimension < 0) {
+                    return null;
+                }
+                if (!plan.groupDimensions.contains(dimension)) {
+                    plan.groupDimensions.add(dimension);
+                }
+            }
+        } else if (!hasAggregate) {
+            // 明细查询无法由预聚合应答
+            return null;
+        }
+        for (Output output : plan.outputs) {
+            if (output.kind == OutputKind.DIMENSION && !plan.groupDimensions.contains(output.index)) {
+                return null;
+            }
+        }
+
+        // 3. 过滤条件：仅支持维度列上的等值 / IN 条件的 AND 组合
+        if (select.getWhere() != null && !collectFilters(select.getWhere(), plan.filters)) {
+            return null;
+        }
+
+        // 4. 排序
+        if (select.getOrderByElements() != null) {
+            for (OrderByElement element : select.getOrderByElements()) {
+                if (element.getNullOrdering() != null) {
+                    return null;
+                }
+                int outputIndex = resolveOrderOutput(element.getExpression(), plan.outputs);
+                if (outputIndex < 0) {
+                    return null;
+                }
+                plan.orders.add(new int[]{outputIndex, element.isAsc() ? 1 : -1});
+            }
+        }
+
+        // 5. 分页
+        Limit limit = select.getLimit();
+        if (limit != null) {
+            if (limit.isLimitAll() || limit.isLimitNull()) {
+                return null;
+            }
+            if (limit.getRowCount() != null) {
+                if (!(limit.getRowCount() instanceof LongValue)) {
+                    return null;
+                }
+                plan.rowCount = ((LongValue) limit.getRowCount()).getValue();
+            }
+            if (limit.getOffset() != null) {
+                if (!(limit.getOffset() instanceof LongValue)) {
+                    return null;
+                }
+                plan.offset = ((LongValue) limit.getOffset()).getValue();
+            }
+        }
+        return plan;
+    }
+
+    private Output resolveOutput(Expression expression) {
+        if (expression instanceof Column) {
+            int dimension = dimensionKeys.indexOf(SqlValueUtils.columnKey((Column) expression));
+            return dimension < 0 ? null : new Output(OutputKind.DIMENSION, dimension);
+        }
+        if (!(expression instanceof Function)) {
+            return null;
+        }
+        Function function = (Function) expression;
+        if (function.isDistinct() || function.isUnique() || function.getKeep() != null
+                || function.getAttribute() != null || function.getAttributeName() != null
+                || function.getNamedParameters() != null) {
+            return null;
+        }
+        OutputKind kind;
+        try {
+            kind = OutputKind.valueOf(function.getName().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (kind == OutputKind.DIMENSION || kind == OutputKind.COUNT_ROWS) {
+            return null;
+        }
+        if (function.isAllColumns()) {
+            return kind == OutputKind.COUNT ? new Output(OutputKind.COUNT_ROWS, -1) : null;
+        }
+        ExpressionList parameters = function.getParameters();
+        if (parameters == null || parameters.getExpressions().size() != 1) {
+            return null;
+        }
+        Expression argument = parameters.getExpressions().get(0);
+        if (kind == OutputKind.COUNT && (argument instanceof AllColumns || argument instanceof LongValue)) {
+            // COUNT(*) / COUNT(1) 统计分组行数
+            return new Output(OutputKind.COUNT_ROWS, -1);
+        }
+        if (!(argument instanceof Column)) {
+            return null;
+        }
+        int measure = measureKeys.indexOf(SqlValueUtils.columnKey((Column) argument));
+        return measure < 0 ? null : new Output(kind, measure);
+    }
+
+    private int resolveGroupDimension(Expression expression, List<Output> outputs) {
+        if (!(expression instanceof Column)) {
+            return -1;
+        }
+        String key = SqlValueUtils.columnKey((Column) expression);
+        int dimension = dimensionKeys.indexOf(key);
+        if (dimension >= 0) {
+            return dimension;
+        }
+        for (Output output : outputs) {
+            if (output.kind == OutputKind.DIMENSION && key.equals(SqlValueUtils.identifierKey(output.label))) {
+                return output.index;
+            }
+        }
+        return -1;
+    }
+
+    private int resolveOrderOutput(Expression expression, List<Output> outputs) {
+        if (expression instanceof LongValue) {
+            long position = ((LongValue) expression).getValue();
+            return position >= 1 && position <= outputs.size() ? (int) position - 1 : -1;
+        }
+        if (expression instanceof Column && ((Column) expression).getTable() == null) {
+            String key = SqlValueUtils.columnKey((Column) expression);
+            for (int i = 0; i < outputs.size(); i++) {
+                if (key.equals(SqlValueUtils.identifierKey(outputs.get(i).label))) {
+                    return i;
+                }
+            }
+        }
+        String text = expression.toString();
+        for (int i = 0; i < outputs.size(); i++) {
+            if (text.equalsIgnoreCase(outputs.get(i).expressionText)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean collectFilters(Expression where, List<Filter> filters) {
+        if (where instanceof Parenthesis) {
+            return collectFilters(((Parenthesis) where).getExpression(), filters);
+        }
+        if (where instanceof AndExpression) {
+            AndExpression and = (AndExpression) where;
+            return collectFilters(and.getLeftExpression(), filters)
+                    && collectFilters(and.getRightExpression(), filters);
+        }
+        if (where instanceof EqualsTo) {
+            EqualsTo equalsTo = (EqualsTo) where;
+            Expression columnSide = equalsTo.getLeftExpression();
+            Expression valueSide = equalsTo.getRightExpression();
+            if (!(columnSide instanceof Column)) {
+                columnSide = equalsTo.getRightExpression();
+                valueSide = equalsTo.getLeftExpression();
+            }
+            return addFilter(columnSide, Collections.singletonList(valueSide), filters);
+        }
+        if (where instanceof InExpression) {
+            InExpression in = (InExpression) where;
+            if (in.isNot() || !(in.getRightItemsList() instanceof ExpressionList)) {
+                return false;
+            }
+            return addFilter(in.getLeftExpression(),
+                    ((ExpressionList) in.getRightItemsList()).getExpressions(), filters);
+        }
+        return false;
+    }
+
+    private boolean addFilter(Expression columnSide, List<Expression> valueExpressions, List<Filter> filters) {
+        if (!(columnSide instanceof Column)) {
+            return false;
+        }
+        int dimension = dimensionKeys.indexOf(SqlValueUtils.columnKey((Column) columnSide));
+        if (dimension < 0) {
+            return false;
+        }
+        List<Object> values = new ArrayList<>(valueExpressions.size());
+        for (Expression expression : valueExpressions) {
+            Object value = SqlValueUtils.literalValue(expression);
+            if (value == null) {
+                return false;
+            }
+            values.add(value);
+        }
+        filters.add(new Filter(dimension, values));
+        return true;
+    }
+
+    private List<Map<String, Object>> execute(QueryPlan plan, Map<List<Object>, RollupCell> snapshot) {
+        // 分组 key 使用按排序规则归一化的取值（如 PAD SPACE 下去掉末尾空格），输出保留首次出现的原值；
+        // 排序规则无法本地复现的字符串维度抛出 IllegalArgumentException，由 answer 回退到 MySQL
+        String[] collations = dimensionCollations;
+        Map<List<Object>, RollupCell> groups = new LinkedHashMap<>();
+        Map<List<Object>, List<Object>> groupValues = new HashMap<>();
+        for (Map.Entry<List<Object>, RollupCell> entry : snapshot.entrySet()) {
+            List<Object> key = entry.getKey();
+            if (!matches(plan.filters, key, collations)) {
+                continue;
+            }
+            Object[] values = new Object[plan.groupDimensions.size()];
+            Object[] groupKey = new Object[values.length];
+            for (int i = 0; i < groupKey.length; i++) {
+                values[i] = key.get(plan.groupDimensions.get(i));
+                groupKey[i] = SqlValueUtils.groupKey(values[i], collations[plan.groupDimensions.get(i)]);
+            }
+            List<Object> normalized = Arrays.asList(groupKey);
+            groupValues.putIfAbsent(normalized, Arrays.asList(values));
+            groups.computeIfAbsent(normalized, k -> new RollupCell(measureKeys.size()))
+                    .merge(entry.getValue());
+        }
+        if (plan.groupDimensions.isEmpty() && groups.isEmpty()) {
+            // 无 GROUP BY 的聚合总是返回一行
+            groups.put(Collections.emptyList(), new RollupCell(measureKeys.size()));
+        }
+
+        List<Object[]> rows = new ArrayList<>(groups.size());
+        for (Map.Entry<List<Object>, RollupCell> group : groups.entrySet()) {
+            Object[] row = new Object[plan.outputs.size()];
+            for (int i = 0; i < row.length; i++) {
+                Output output = plan.outputs.get(i);
+                row[i] = output.kind == OutputKind.DIMENSION
+                        ? groupValues.get(group.getKey()).get(plan.groupDimensions.indexOf(output.index))
+                        : output.kind.value(group.getValue(), output.index);
+            }
+            rows.add(row);
+        }
+
+        if (!plan.orders.isEmpty()) {
+            rows.sort((left, right) -> {
+                for (int[] order : plan.orders) {
+                    int result = SqlValueUtils.compare(left[order[0]], right[order[0]]) * order[1];
+                    if (result != 0) {
+                        return result;
+                    }
+                }
+                return 0;
+            });
+        }
+
+        int from = (int) Math.min(plan.offset, rows.size());
+        int to = plan.rowCount < 0 ? rows.size() : (int) Math.min(rows.size(), from + plan.rowCount);
+        List<Map<String, Object>> result = new ArrayList<>(to - from);
+        for (Object[] row : rows.subList(from, to)) {
+            Map<String, Object> mapped = new LinkedCaseInsensitiveMap<>(row.length);
+            for (int i = 0; i < row.length; i++) {
+                mapped.put(plan.outputs.get(i).label, row[i]);
+            }
+            result.add(mapped);
+        }
+        return result;
+    }
+
+    private static boolean matches(List<Filter> filters, List<Object> key, String[] collations) {
+        for (Filter filter : filters) {
+            Object actual = key.get(filter.dimension);
+            boolean hit = false;
+            for (Object expected : filter.values) {
+                if (SqlValueUtils.sqlEquals(actual, expected, collations[filter.dimension])) {
+                    hit = true;
+                    break;
+                }
+            }
+            if (!hit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String defaultLabel(Expression expression) {
+        return expression instanceof Column
+                ? SqlValueUtils.unquote(((Column) expression).getColumnName())
+                : expression.toString();
+    }
+
+    private static String quote(String identifier) {
+        return "`" + identifier + "`";
+    }
+
+    /**
+     * 输出列类型，聚合函数按名称匹配
+     */
+    private enum OutputKind {
+        DIMENSION,
+        COUNT_ROWS,
+        SUM,
+        COUNT,
+        AVG,
+        MIN,
+        MAX;
+
+        Object value(RollupCell cell, int measure) {
+            switch (this) {
+                case COUNT_ROWS:
+                    return cell.rows;
+                case SUM:
+                    return cell.counts[measure] == 0 ? null : cell.sums[measure];
+                case COUNT:
+                    return cell.counts[measure];
+                case AVG:
+                    if (cell.counts[measure] == 0) {
+                        return null;
+                    }
+                    BigDecimal sum = cell.sums[measure];
+                    // 与 MySQL div_precision_increment=4 的默认精度保持一致
+                    return sum.divide(BigDecimal.valueOf(cell.counts[measure]), sum.scale() + 4, RoundingMode.HALF_UP);
+                case MIN:
+                    return cell.mins[measure];
+                case MAX:
+                    return cell.maxs[measure];
+                default:
+                    throw new IllegalStateException("维度列不是聚合值");
+            }
+        }
+    }
+
+    private static class Output {
+        final OutputKind kind;
+        /**
+         * DIMENSION 为维度下标，其余为度量下标
+         */
+        final int index;
+        String label;
+        String expressionText;
+
+        Output(OutputKind kind, int index) {
+            this.kind = kind;
+            this.index = index;
+        }
+    }
+
+    private static class Filter {
+        final int dimension;
+        final List<Object> values;
+
+        Filter(int dimension, List<Object> values) {
+            this.dimension = dimension;
+            this.values = values;
+        }
+    }
+
+    private static class QueryPlan {
+        final List<Output> outputs = new ArrayList<>();
+        final List<Integer> groupDimensions = new ArrayList<>();
+        final List<Filter> filters = new ArrayList<>();
+        /**
+         * {输出列下标, 1 升序 / -1 降序}
+         */
+        final List<int[]> orders = new ArrayList<>();
+        long offset = 0;
+        long rowCount = -1;
+    }
+
+    /**
+     * 单个分组的聚合状态，可加合
+     */
+    static class RollupCell {
+        long rows;
+        final BigDecimal[] sums;
+        final long[] counts;
+        final Object[] mins;
+        final Object[] maxs;
+
+        RollupCell(int measures) {
+            sums = new BigDecimal[measures];
+            counts = new long[measures];
+            mins = new Object[measures];
+            maxs = new Object[measures];
+        }
+
+        RollupCell merge(RollupCell other) {
+            rows += other.rows;
+            for (int i = 0; i < sums.length; i++) {
+                if (other.sums[i] != null) {
+                    sums[i] = sums[i] == null ? other.sums[i] : sums[i].add(other.sums[i]);
+                }
+                counts[i] += other.counts[i];
+                if (other.mins[i] != null && (mins[i] == null || SqlValueUtils.compare(other.mins[i], mins[i]) < 0)) {
+                    mins[i] = other.mins[i];
+                }
+                if (other.maxs[i] != null && (maxs[i] == null || SqlValueUtils.compare(other.maxs[i], maxs[i]) > 0)) {
+                    maxs[i] = other.maxs[i];
+                }
+            }
+            return this;
+        }
+
+        RollupCell copy() {
+            return new RollupCell(sums.length).merge(this);
+        }
+    }
+}
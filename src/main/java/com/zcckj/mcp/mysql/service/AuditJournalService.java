@@ -0,0 +1,188 @@
+package com.zcckj.mcp.mysql.service;
+
+import com.zcckj.mcp.mysql.audit.AuditJournalWriter;
+import com.zcckj.mcp.mysql.audit.AuditRecord;
+import com.zcckj.mcp.mysql.audit.RingBuffer;
+import com.zcckj.mcp.mysql.config.AuditConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 审计日志服务
+ * 工具调用在请求线程上只做一次无锁入队，序列化、写文件和 fsync 都在后台写线程上完成
+ */
+@Service
+@Slf4j
+public class AuditJournalService {
+
+    /**
+     * BLOCK 模式下缓冲区满时每次等待的时长
+     */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Autowired
+    private AuditConfig auditConfig;
+
+    private RingBuffer<AuditRecord> buffer;
+
+    private AuditJournalWriter writer;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if (!auditConfig.isEnabled()) {
+            return;
+        }
+        try {
+            writer = new AuditJournalWriter(Paths.get(auditConfig.getDirectory()).toAbsolutePath(),
+                    auditConfig.getMaxFileBytes(), auditConfig.getMaxFiles());
+        } catch (IOException | RuntimeException e) {
+            // STDIO 模式下客户端常以不可写的目录（如 /）作为工作目录启动，审计不可用时不影响服务启动
+            log.error("审计日志目录 {} 不可用，本次运行不记录审计日志: {}",
+                    Paths.get(auditConfig.getDirectory()).toAbsolutePath(), e.toString());
+            return;
+        }
+        buffer = new RingBuffer<>(auditConfig.getBufferSize());
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("审计日志已开启，目录: {}，缓冲区: {}，溢出策略: {}", auditConfig.getDirectory(),
+                buffer.capacity(), auditConfig.getOverflow());
+    }
+
+    /**
+     * 开始一次工具调用的审计，结果默认为成功，调用结束后交给 {@link #submit(AuditRecord)}
+     */
+    public AuditRecord begin(String tool, String sql) {
+        AuditRecord record = new AuditRecord();
+        record.setTimestamp(System.currentTimeMillis());
+        record.setTool(tool);
+        record.setSql(sql);
+        record.setOutcome(AuditRecord.Outcome.OK);
+        return record;
+    }
+
+    /**
+     * 记录放入缓冲区，DROP 模式下缓冲区满时丢弃并计数，不等待
+     */
+    public void submit(AuditRecord record) {
+        if (!running) {
+            return;
+        }
+        record.setElapsedMs(System.currentTimeMillis() - record.getTimestamp());
+        if (buffer.offer(record)) {
+            return;
+        }
+        if (auditConfig.getOverflow() == AuditConfig.OverflowPolicy.DROP) {
+            dropped.increment();
+            return;
+        }
+        while (!buffer.offer(record)) {
+            // 写线程已退出时不再等待，避免工具调用永久阻塞
+            if (!running || !writerThread.isAlive()) {
+                dropped.increment();
+                return;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getPending() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        log.info("审计日志已关闭，写入 {} 条，丢弃 {} 条，写入失败 {} 条", written.sum(), dropped.sum(), failed.sum());
+    }
+
+    private void runWriter() {
+        List<AuditRecord> batch = new ArrayList<>(auditConfig.getBatchSize());
+        long flushNanos = TimeUnit.MILLISECONDS.toNanos(auditConfig.getFlushIntervalMs());
+        long lastFsync = System.currentTimeMillis();
+        long reportedDropped = 0;
+        try {
+            // 停止后继续把缓冲区中剩余的记录写完
+            while (running || buffer.size() > 0) {
+                batch.clear();
+                int count = buffer.drainTo(batch, auditConfig.getBatchSize());
+                if (count > 0) {
+                    try {
+                        writer.write(batch);
+                        written.add(count);
+                    } catch (IOException | RuntimeException e) {
+                        // 单批失败（磁盘、序列化等）只丢弃该批，写线程继续运行
+                        failed.add(count);
+                        log.error("写入审计日志失败，丢失 {} 条记录", count, e);
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastFsync >= auditConfig.getFsyncIntervalMs()) {
+                    lastFsync = now;
+                    forceQuietly();
+                    long droppedNow = dropped.sum();
+                    if (droppedNow != reportedDropped) {
+                        log.warn("审计缓冲区已满，累计丢弃 {} 条记录", droppedNow);
+                        reportedDropped = droppedNow;
+                    }
+                }
+                if (count < auditConfig.getBatchSize() && running) {
+                    LockSupport.parkNanos(flushNanos);
+                }
+            }
+        } finally {
+            if (running) {
+                log.error("审计日志写线程异常退出，之后的审计记录将被丢弃");
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("关闭审计日志失败", e);
+            }
+        }
+    }
+
+    private void forceQuietly() {
+        try {
+            writer.force();
+        } catch (IOException | RuntimeException e) {
+            log.warn("审计日志 fsync 失败", e);
+        }
+    }
+}
@@ -1,22 +1,33 @@
 package com.zcckj.mcp.mysql.service;
 
+import com.zcckj.mcp.mysql.audit.AuditRecord;
 import com.zcckj.mcp.mysql.config.DataBaseConfig;
 import com.zcckj.mcp.mysql.config.DataBaseLimitConfig;
+import com.zcckj.mcp.mysql.config.SpillConfig;
 import com.zcckj.mcp.mysql.model.DbTool;
 import com.zcckj.mcp.mysql.model.Resource;
+import com.zcckj.mcp.mysql.model.SqlParameter;
 import com.zcckj.mcp.mysql.model.TextContent;
 import com.zcckj.mcp.mysql.utils.JsonUtils;
+import com.zcckj.mcp.mysql.utils.PreparedSqlUtils;
+import com.zcckj.mcp.mysql.vo.ResultHandleVO;
 import com.zcckj.mcp.mysql.vo.TableSchemaVO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.sf.jsqlparser.expression.Expression;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -37,6 +48,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 @Slf4j
 public class MysqlMcpServerService {
 
+    /**
+     * 预热用的SQL，覆盖 JOIN、聚合、排序、分页等常用语法分支
+     */
+    private static final String PARSER_WARMUP_SQL = "SELECT a.id, SUM(b.amount) FROM t1 a JOIN t2 b ON a.id = b.t1_id "
+            + "WHERE a.status IN ('0', '1') AND b.amount > 0 GROUP BY a.id ORDER BY SUM(b.amount) DESC LIMIT 10";
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
@@ -44,7 +61,52 @@ public class MysqlMcpServerService {
     private DataBaseConfig databaseConfig;
     @Autowired
     private DataBaseLimitConfig dataBaseLimitConfig;
+    @Autowired
+    private RollupStoreService rollupStoreService;
+    @Autowired
+    private TableSnapshotService tableSnapshotService;
+    @Autowired
+    private ResultSpillService resultSpillService;
+    @Autowired
+    private SpillConfig spillConfig;
+    @Autowired
+    private AuditJournalService auditJournalService;
+    @Autowired
+    private PoolSizingService poolSizingService;
+
+    /**
+     * 参数化查询模板缓存：模板SQL -> 校验、改写结果，按访问顺序淘汰
+     */
+    private final Map<String, PreparedTemplate> preparedTemplates = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedTemplate> eldest) {
+                    return size() > dataBaseLimitConfig.getPreparedCacheSize();
+                }
+            });
+
 
+    /**
+     * 服务就绪后在后台线程预热 JSqlParser
+     * 解析器类较多、首次解析需要加载和初始化，放在启动路径上会拖慢启动，放在第一次工具调用上会拖慢首次响应
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmupSqlParser() {
+        if (!dataBaseLimitConfig.isParserWarmup()) {
+            return;
+        }
+        Thread warmup = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                CCJSqlParserUtil.parse(PARSER_WARMUP_SQL);
+                log.info("SQL解析器预热完成，耗时 {} ms", (System.nanoTime() - start) / 1_000_000);
+            } catch (JSQLParserException e) {
+                log.warn("SQL解析器预热失败", e);
+            }
+        }, "sql-parser-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
 
     /**
      * 获取表的ddl信息
@@ -99,14 +161,24 @@ public class MysqlMcpServerService {
     public String executeSql(
             @ToolParam(description = "SQL查询语句。支持的操作：SELECT（数据查询）、SHOW（仅允许只读子集）")
             String sql) {
+        AuditRecord audit = auditJournalService.begin("execute_tool", sql);
+        poolSizingService.enter();
+        try {
+            return doExecuteSql(sql, audit);
+        } finally {
+            poolSizingService.exit();
+            auditJournalService.submit(audit);
+        }
+    }
+
+    private String doExecuteSql(String sql, AuditRecord audit) {
 
-        log.info("准备执行SQL: {}", sql);
+        log.debug("准备执行SQL: {}", sql);
 
         // 验证SQL语句的安全性
         if (!isReadOnlySqlQuery(sql)) {
             log.warn("拒绝执行非只读SQL: {}", sql);
-            return JsonUtils.toJsonString(
-                    new TextContent("安全限制：仅允许执行只读查询（SELECT、SHOW 子集），禁止任何修改操作", "text"));
+            return reject(audit, "安全限制：仅允许执行只读查询（SELECT、SHOW 子集），禁止任何修改操作");
         }
 
         try {
@@ -115,40 +187,24 @@ public class MysqlMcpServerService {
             // 处理 SELECT 查询
             if (normalizedQuery.startsWith("SELECT")) {
                 // 验证表访问权限并添加LIMIT限制
-                String validatedSql = validateAndLimitSql(sql);
-                if (validatedSql == null) {
+                Select validatedSelect = validateAndLimitSql(sql, dataBaseLimitConfig.getLimitRows());
+                if (validatedSelect == null) {
                     log.warn("SQL访问了未授权的表: {}", sql);
-                    return JsonUtils.toJsonString(
-                            new TextContent("安全限制：只能查询授权的表。授权表列表: " +
-                                    String.join(", ", dataBaseLimitConfig.getReadOnlyTables()), "text"));
+                    return reject(audit, "安全限制：只能查询授权的表。授权表列表: " +
+                            String.join(", ", dataBaseLimitConfig.getReadOnlyTables()));
                 }
+                audit.setRewrittenSql(validatedSelect.toString());
 
-                List<Map<String, Object>> rows = jdbcTemplate.queryForList(validatedSql);
-
-                if (rows.isEmpty()) {
-                    log.info("查询返回0条记录");
-                    return JsonUtils.toJsonString(
-                            new TextContent("查询成功，但没有找到匹配的数据", "text"));
+                // 优先尝试预聚合和小表快照应答，都未命中再查询MySQL
+                List<Map<String, Object>> rows = rollupStoreService.tryAnswer(validatedSelect);
+                if (rows == null) {
+                    rows = tableSnapshotService.tryAnswer(validatedSelect);
                 }
-
-                StringBuilder result = new StringBuilder();
-                result.append(String.format("=== 查询结果 (共 %d 条记录) ===\n\n", rows.size()));
-
-                // 表头
-                String headers = String.join(" | ", rows.get(0).keySet());
-                result.append(headers).append("\n");
-                result.append("-".repeat(headers.length())).append("\n");
-
-                // 数据行
-                for (Map<String, Object> row : rows) {
-                    String dataRow = row.values().stream()
-                            .map(val -> val == null ? "NULL" : String.valueOf(val))
-                            .collect(Collectors.joining(" | "));
-                    result.append(dataRow).append("\n");
+                if (rows == null) {
+                    rows = jdbcTemplate.queryForList(validatedSelect.toString());
                 }
-
-                log.info("成功执行SELECT查询，返回 {} 条记录", rows.size());
-                return JsonUtils.toJsonString(new TextContent(result.toString(), "text"));
+                audit.setRows(rows.size());
+                return formatSelectResult(rows);
             }
 
             /* ---------- 2. SHOW 分支（新增白名单与禁用逻辑） ---------- */
@@ -156,8 +212,7 @@ public class MysqlMcpServerService {
                 /* 2-1 显式禁用 SHOW DATABASES */
                 if (normalizedQuery.matches("SHOW\\s+DATABASES.*")) {
                     log.warn("尝试执行被禁用的 SHOW DATABASES: {}", sql);
-                    return JsonUtils.toJsonString(
-                            new TextContent("安全限制：SHOW DATABASES 被禁用", "text"));
+                    return reject(audit, "安全限制：SHOW DATABASES 被禁用");
                 }
 
                 /* 2-2 SHOW TABLES -> 只返回白名单表 */
@@ -171,7 +226,9 @@ public class MysqlMcpServerService {
                             "FROM information_schema.TABLES " +
                             "WHERE TABLE_SCHEMA = '" + databaseConfig.getDatabase() + "' " +
                             "  AND TABLE_NAME IN (" + inClause + ")";
+                    audit.setRewrittenSql(filtered);
                     List<Map<String, Object>> rows = jdbcTemplate.queryForList(filtered);
+                    audit.setRows(rows.size());
                     return JsonUtils.toJsonString(new TextContent(JsonUtils.toJsonString(rows), "text"));
                 }
 
@@ -179,16 +236,15 @@ public class MysqlMcpServerService {
                 String validatedShowSql = validateShowSql(sql);
                 if (validatedShowSql == null) {
                     log.warn("SHOW 语句访问了未授权的表: {}", sql);
-                    return JsonUtils.toJsonString(
-                            new TextContent("安全限制：SHOW 语句只能操作授权的表。授权表列表: " +
-                                    String.join(", ", dataBaseLimitConfig.getReadOnlyTables()), "text"));
+                    return reject(audit, "安全限制：SHOW 语句只能操作授权的表。授权表列表: " +
+                            String.join(", ", dataBaseLimitConfig.getReadOnlyTables()));
                 }
                 List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
+                audit.setRows(rows.size());
                 return JsonUtils.toJsonString(new TextContent(JsonUtils.toJsonString(rows), "text"));
             }
 
-            return JsonUtils.toJsonString(
-                    new TextContent(" 安全限制，不支持其他操作","text"));
+            return reject(audit, " 安全限制，不支持其他操作");
 
             /* ---------- 3. 其余只读命令（DESC/EXPLAIN 等）直接放行 ---------- */
            /* List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
@@ -196,16 +252,198 @@ public class MysqlMcpServerService {
 
         } catch (Exception e) {
             log.error("执行SQL时发生错误: {}", sql, e);
-            return JsonUtils.toJsonString(new TextContent("SQL执行错误: " + e.getMessage(), "text"));
+            return fail(audit, e);
         }
     }
 
+    @Tool(description = "执行参数化SQL查询，SQL中的字面量用 ? 占位，参数按顺序通过 params 传入。"
+            + "同一结构的查询只换参数时（如按不同项目ID查询报销明细）优先使用本工具。仅支持SELECT。",
+            name = "execute_prepared_tool")
+    public String executePreparedSql(
+            @ToolParam(description = "带 ? 占位符的SELECT语句，例如 SELECT * FROM ctg_ledger_project WHERE id = ?")
+            String sql,
+            @ToolParam(description = "按占位符顺序排列的参数列表，没有占位符时可省略", required = false)
+            List<SqlParameter> params) {
+        AuditRecord audit = auditJournalService.begin("execute_prepared_tool", sql);
+        audit.setParams(params);
+        poolSizingService.enter();
+        try {
+            return doExecutePreparedSql(sql, params, audit);
+        } finally {
+            poolSizingService.exit();
+            auditJournalService.submit(audit);
+        }
+    }
+
+    private String doExecutePreparedSql(String sql, List<SqlParameter> params, AuditRecord audit) {
+
+        log.debug("准备执行参数化SQL: {}，参数: {}", sql, params);
+        if (sql == null || sql.trim().isEmpty()) {
+            return reject(audit, "SQL不能为空");
+        }
+
+        PreparedTemplate template = preparedTemplates.get(sql);
+        if (template == null) {
+            template = compileTemplate(sql);
+            preparedTemplates.put(sql, template);
+        }
+        if (template.getRejection() != null) {
+            return reject(audit, template.getRejection());
+        }
+        audit.setRewrittenSql(template.getSql());
+
+        List<SqlParameter> bindParams = params == null ? Collections.emptyList() : params;
+        if (bindParams.size() != template.getParameterCount()) {
+            return reject(audit, String.format("参数个数不匹配：SQL中有 %d 个占位符，实际传入 %d 个参数",
+                    template.getParameterCount(), bindParams.size()));
+        }
+        List<Object> values;
+        try {
+            values = bindParams.stream().map(PreparedSqlUtils::toJdbcValue).toList();
+        } catch (IllegalArgumentException e) {
+            return reject(audit, "参数错误: " + e.getMessage());
+        }
+
+        try {
+            String preparedSql = template.getSql();
+            Integer maxRows = dataBaseLimitConfig.getLimitRows();
+            List<Map<String, Object>> rows = jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(preparedSql);
+                // LIMIT ? 无法在改写阶段封顶，由驱动按行数上限截断
+                if (maxRows != null && maxRows > 0) {
+                    ps.setMaxRows(maxRows);
+                }
+                PreparedSqlUtils.bind(ps, values);
+                return ps;
+            }, new ColumnMapRowMapper());
+            audit.setRows(rows.size());
+            return formatSelectResult(rows);
+        } catch (Exception e) {
+            log.error("执行参数化SQL时发生错误: {}", sql, e);
+            return fail(audit, e);
+        }
+    }
+
+    @Tool(description = "导出大结果集：执行SELECT查询，结果写入服务端临时存储并返回资源句柄，不直接返回数据。"
+            + "按句柄中的 resource.uri 模板读取 MCP 资源 mysql-result://{resultId}/{page} 分页获取数据，page 从 1 开始；"
+            + "句柄在一段时间未访问后过期。仅在需要大量明细时使用，普通查询请使用 execute_tool。",
+            name = "export_query_result")
+    public String exportQueryResult(
+            @ToolParam(description = "SELECT查询语句，行数上限高于 execute_tool")
+            String sql) {
+        AuditRecord audit = auditJournalService.begin("export_query_result", sql);
+        poolSizingService.enter();
+        try {
+            return doExportQueryResult(sql, audit);
+        } finally {
+            poolSizingService.exit();
+            auditJournalService.submit(audit);
+        }
+    }
+
+    private String doExportQueryResult(String sql, AuditRecord audit) {
+
+        log.debug("准备导出SQL结果: {}", sql);
+        if (!spillConfig.isEnabled()) {
+            return reject(audit, "结果集导出未开启，请使用 execute_tool");
+        }
+        if (!isReadOnlySqlQuery(sql) || !sql.trim().toUpperCase().startsWith("SELECT")) {
+            log.warn("拒绝导出非SELECT语句: {}", sql);
+            return reject(audit, "安全限制：导出仅支持只读的SELECT语句");
+        }
+        // 多取一行用于判断结果是否被截断
+        Select validatedSelect = validateAndLimitSql(sql, spillConfig.getMaxRows() + 1);
+        if (validatedSelect == null) {
+            log.warn("导出SQL访问了未授权的表: {}", sql);
+            return reject(audit, "安全限制：只能查询授权的表。授权表列表: " +
+                    String.join(", ", dataBaseLimitConfig.getReadOnlyTables()));
+        }
+        audit.setRewrittenSql(validatedSelect.toString());
+        try {
+            ResultHandleVO handle = resultSpillService.spill(validatedSelect.toString());
+            audit.setRows(handle.getRowCount());
+            return JsonUtils.toJsonString(new TextContent(JsonUtils.toJsonString(handle), "text"));
+        } catch (Exception e) {
+            log.error("导出SQL结果时发生错误: {}", sql, e);
+            return fail(audit, e);
+        }
+    }
+
+    /**
+     * 记录拒绝原因并返回给客户端
+     */
+    private String reject(AuditRecord audit, String message) {
+        audit.setOutcome(AuditRecord.Outcome.REJECTED);
+        audit.setMessage(message);
+        return JsonUtils.toJsonString(new TextContent(message, "text"));
+    }
+
+    private String fail(AuditRecord audit, Exception e) {
+        audit.setOutcome(AuditRecord.Outcome.ERROR);
+        audit.setMessage(e.getMessage());
+        return JsonUtils.toJsonString(new TextContent("SQL执行错误: " + e.getMessage(), "text"));
+    }
+
+    /**
+     * 校验并改写参数化查询模板，结果（包括拒绝原因）按模板缓存
+     */
+    private PreparedTemplate compileTemplate(String sql) {
+        if (!isReadOnlySqlQuery(sql) || !sql.trim().toUpperCase().startsWith("SELECT")) {
+            log.warn("拒绝参数化SQL模板: {}", sql);
+            return new PreparedTemplate(null, 0, "安全限制：参数化查询仅支持只读的SELECT语句");
+        }
+        Select validatedSelect = validateAndLimitSql(sql, dataBaseLimitConfig.getLimitRows());
+        if (validatedSelect == null) {
+            log.warn("参数化SQL访问了未授权的表: {}", sql);
+            return new PreparedTemplate(null, 0, "安全限制：只能查询授权的表。授权表列表: " +
+                    String.join(", ", dataBaseLimitConfig.getReadOnlyTables()));
+        }
+        String rewritten = validatedSelect.toString();
+        try {
+            return new PreparedTemplate(rewritten, PreparedSqlUtils.countPlaceholders(rewritten), null);
+        } catch (IllegalArgumentException e) {
+            log.warn("参数化SQL模板占位符不合法: {}", sql);
+            return new PreparedTemplate(null, 0, "参数错误: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 将SELECT结果格式化为文本表格
+     */
+    private String formatSelectResult(List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            log.debug("查询返回0条记录");
+            return JsonUtils.toJsonString(
+                    new TextContent("查询成功，但没有找到匹配的数据", "text"));
+        }
+
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("=== 查询结果 (共 %d 条记录) ===\n\n", rows.size()));
+
+        // 表头
+        String headers = String.join(" | ", rows.get(0).keySet());
+        result.append(headers).append("\n");
+        result.append("-".repeat(headers.length())).append("\n");
+
+        // 数据行
+        for (Map<String, Object> row : rows) {
+            String dataRow = row.values().stream()
+                    .map(val -> val == null ? "NULL" : String.valueOf(val))
+                    .collect(Collectors.joining(" | "));
+            result.append(dataRow).append("\n");
+        }
+
+        log.debug("成功执行SELECT查询，返回 {} 条记录", rows.size());
+        return JsonUtils.toJsonString(new TextContent(result.toString(), "text"));
+    }
+
     /**
      * 验证SQL中的表访问权限并添加LIMIT限制
      * @param sql 原始SQL
-     * @return 验证通过并添加LIMIT后的SQL，如果验证失败返回null
+     * @param maxRows 行数上限
+     * @return 验证通过并添加LIMIT后的语句，如果验证失败返回null
      */
-    private String validateAndLimitSql(String sql) {
+    private Select validateAndLimitSql(String sql, Integer maxRows) {
         try {
             // 解析SQL
             ByteArrayInputStream in = new ByteArrayInputStream(sql.getBytes(StandardCharsets.UTF_8));
@@ -239,12 +477,11 @@ public class MysqlMcpServerService {
             }
 
             // 添加或更新LIMIT限制
-            Integer maxRows = dataBaseLimitConfig.getLimitRows();
             if (maxRows != null && maxRows > 0) {
                 applyLimit(selectStatement, maxRows);
             }
 
-            return selectStatement.toString();
+            return selectStatement;
 
         } catch (JSQLParserException e) {
             log.error("SQL解析失败: {}", sql, e);
@@ -331,7 +568,7 @@ public class MysqlMcpServerService {
                     long existingRows = ((LongValue) rowCount).getValue();
                     if (existingRows > maxRows) {
                         existingLimit.setRowCount(new LongValue(maxRows));
-                        log.info("原SQL LIMIT {} 超过限制，已调整为 {}", existingRows, maxRows);
+                        log.debug("原SQL LIMIT {} 超过限制，已调整为 {}", existingRows, maxRows);
                     }
                 }
             } else {
@@ -339,7 +576,7 @@ public class MysqlMcpServerService {
                 Limit newLimit = new Limit();
                 newLimit.setRowCount(new LongValue(maxRows));
                 plainSelect.setLimit(newLimit);
-                log.info("为SQL添加LIMIT {}", maxRows);
+                log.debug("为SQL添加LIMIT {}", maxRows);
             }
         } else if (selectBody instanceof SetOperationList) {
             // 对于UNION等操作，在最外层添加LIMIT
@@ -495,4 +732,15 @@ public class MysqlMcpServerService {
         }
         return sql;
     }
+
+    /**
+     * 参数化查询模板：改写后的SQL和占位符个数，校验未通过时只有拒绝原因
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class PreparedTemplate {
+        private final String sql;
+        private final int parameterCount;
+        private final String rejection;
+    }
 }
@@ -0,0 +1,306 @@
+package com.zcckj.mcp.mysql.service;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zcckj.mcp.mysql.config.DataBaseConfig;
+import com.zcckj.mcp.mysql.config.PoolSizingConfig;
+import com.zcckj.mcp.mysql.pool.ConnectionWaitTracker;
+import com.zcckj.mcp.mysql.pool.PoolSizingMXBean;
+import com.zcckj.mcp.mysql.pool.PoolSizingPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接池自适应调整服务
+ * 按秒采样工具调用并发和连接池状态，每个调整窗口结合等待时间和 MySQL 负载决定新的连接池大小，
+ * 通过 Hikari 的运行时配置接口生效；每次决策写日志并通过 JMX 暴露。
+ * 采样和调整在独立的调度线程上执行，不受预聚合、快照刷新等 @Scheduled 任务耗时的影响
+ */
+@Service
+@Slf4j
+public class PoolSizingService implements PoolSizingMXBean {
+
+    private static final int RECENT_DECISIONS = 20;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 查询 MySQL 负载时独立连接的建连和读超时（毫秒）
+     */
+    private static final String PROBE_TIMEOUT_MS = "5000";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DataBaseConfig databaseConfig;
+
+    @Autowired
+    private PoolSizingConfig poolSizingConfig;
+
+    @Autowired
+    private ConnectionWaitTracker connectionWaitTracker;
+
+    private PoolSizingPolicy policy;
+
+    private ObjectName objectName;
+
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    // 以下峰值由工具调用线程和采样任务累积，调整任务取出并清零
+    private final AtomicInteger peakInflight = new AtomicInteger();
+
+    private final AtomicInteger peakActive = new AtomicInteger();
+
+    private final AtomicInteger peakAwaiting = new AtomicInteger();
+
+    private final Deque<String> recentDecisions = new ArrayDeque<>();
+
+    private volatile String lastDecision = "";
+
+    private volatile long resizeCount;
+
+    private volatile int threadsRunning = -1;
+
+    private volatile int maxConnections = -1;
+
+    @PostConstruct
+    public void init() {
+        if (!poolSizingConfig.isEnabled() || !(dataSource instanceof HikariDataSource)) {
+            return;
+        }
+        policy = new PoolSizingPolicy(poolSizingConfig);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName("com.zcckj.mcp.mysql:type=PoolSizing,pool="
+                    + ((HikariDataSource) dataSource).getPoolName());
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            log.warn("注册连接池调整 JMX 指标失败", e);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pool-sizing");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> runQuietly("采样", this::sample),
+                poolSizingConfig.getSampleIntervalMs(), poolSizingConfig.getSampleIntervalMs(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> runQuietly("调整", this::adjust),
+                poolSizingConfig.getAdjustIntervalMs(), poolSizingConfig.getAdjustIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("连接池自适应调整已开启，范围 [{}, {}]，调整间隔 {} ms", poolSizingConfig.getMinPoolSize(),
+                poolSizingConfig.getMaxPoolSize(), poolSizingConfig.getAdjustIntervalMs());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.debug("注销连接池调整 JMX 指标失败", e);
+        }
+    }
+
+    /**
+     * 工具调用开始，与 {@link #exit()} 成对调用
+     */
+    public void enter() {
+        peakInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+    }
+
+    public void exit() {
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * 任务抛出异常会终止 ScheduledExecutorService 的后续执行，这里记录后继续
+     */
+    private void runQuietly(String name, Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.error("连接池自适应{}失败", name, e);
+        }
+    }
+
+    private void sample() {
+        HikariPoolMXBean pool = poolMXBean();
+        if (pool == null) {
+            return;
+        }
+        peakInflight.accumulateAndGet(inflight.get(), Math::max);
+        peakActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+        peakAwaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+    }
+
+    private void adjust() {
+        HikariPoolMXBean pool = poolMXBean();
+        if (pool == null) {
+            return;
+        }
+        HikariConfigMXBean hikari = ((HikariDataSource) dataSource).getHikariConfigMXBean();
+        ConnectionWaitTracker.WaitStats wait = connectionWaitTracker.drain();
+        queryMysqlStatus();
+
+        PoolSizingPolicy.Observation observation = PoolSizingPolicy.Observation.builder()
+                .maximumPoolSize(hikari.getMaximumPoolSize())
+                .peakInflight(peakInflight.getAndSet(inflight.get()))
+                .peakActive(peakActive.getAndSet(0))
+                .peakAwaiting(peakAwaiting.getAndSet(0))
+                .avgWaitMs(wait.getAvgWaitMs())
+                .timeouts(wait.getTimeouts())
+                .threadsRunning(threadsRunning < 0 ? null : threadsRunning)
+                .maxConnections(maxConnections < 0 ? null : maxConnections)
+                .build();
+        PoolSizingPolicy.Decision decision = policy.decide(observation);
+
+        int oldMax = hikari.getMaximumPoolSize();
+        int oldMinIdle = hikari.getMinimumIdle();
+        boolean changed = decision.getMaximumPoolSize() != oldMax || decision.getMinimumIdle() != oldMinIdle;
+        if (changed) {
+            // 始终保持 minimumIdle <= maximumPoolSize：扩容先调上限，缩容先调空闲数
+            if (decision.getMaximumPoolSize() >= oldMax) {
+                hikari.setMaximumPoolSize(decision.getMaximumPoolSize());
+                hikari.setMinimumIdle(decision.getMinimumIdle());
+            } else {
+                hikari.setMinimumIdle(decision.getMinimumIdle());
+                hikari.setMaximumPoolSize(decision.getMaximumPoolSize());
+            }
+            resizeCount++;
+        }
+
+        String record = String.format("%s maximumPoolSize %d -> %d, minimumIdle %d -> %d: %s（最大等待 %d ms）",
+                LocalDateTime.now().format(TIME_FORMAT), oldMax, decision.getMaximumPoolSize(), oldMinIdle,
+                decision.getMinimumIdle(), decision.getReason(), wait.getMaxWaitMs());
+        lastDecision = record;
+        synchronized (recentDecisions) {
+            recentDecisions.addLast(record);
+            if (recentDecisions.size() > RECENT_DECISIONS) {
+                recentDecisions.removeFirst();
+            }
+        }
+        if (changed) {
+            log.info("连接池调整: {}", record);
+        } else {
+            log.debug("连接池调整: {}", record);
+        }
+    }
+
+    /**
+     * 查询 MySQL 当前运行线程数和最大连接数，非 MySQL 数据源或查询失败时记为未知
+     * <p>
+     * 使用不经过连接池的独立连接：需要扩容时连接池正好已满，从池中借连接会阻塞到 connection-timeout，
+     * 而且这次等待会被 ConnectionWaitTracker 计入，干扰本次决策
+     */
+    private void queryMysqlStatus() {
+        if (!databaseConfig.getUrl().startsWith("jdbc:mysql:")) {
+            return;
+        }
+        Properties properties = new Properties();
+        if (databaseConfig.getUsername() != null) {
+            properties.setProperty("user", databaseConfig.getUsername());
+        }
+        if (databaseConfig.getPassword() != null) {
+            properties.setProperty("password", databaseConfig.getPassword());
+        }
+        properties.setProperty("connectTimeout", PROBE_TIMEOUT_MS);
+        properties.setProperty("socketTimeout", PROBE_TIMEOUT_MS);
+        try (Connection connection = DriverManager.getConnection(databaseConfig.getUrl(), properties);
+             Statement statement = connection.createStatement()) {
+            try (ResultSet status = statement.executeQuery("SHOW GLOBAL STATUS LIKE 'Threads_running'")) {
+                threadsRunning = status.next() ? Integer.parseInt(status.getString(2)) : -1;
+            }
+            try (ResultSet max = statement.executeQuery("SELECT @@max_connections")) {
+                maxConnections = max.next() ? max.getInt(1) : -1;
+            }
+        } catch (SQLException | RuntimeException e) {
+            threadsRunning = -1;
+            maxConnections = -1;
+            log.warn("查询 MySQL 负载状态失败，本次调整不参考数据库负载: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 未开启或连接池尚未初始化（延迟初始化）时返回 null
+     */
+    private HikariPoolMXBean poolMXBean() {
+        if (policy == null) {
+            return null;
+        }
+        return ((HikariDataSource) dataSource).getHikariPoolMXBean();
+    }
+
+    @Override
+    public int getMaximumPoolSize() {
+        return ((HikariDataSource) dataSource).getMaximumPoolSize();
+    }
+
+    @Override
+    public int getMinimumIdle() {
+        return ((HikariDataSource) dataSource).getMinimumIdle();
+    }
+
+    @Override
+    public int getInflightCalls() {
+        return inflight.get();
+    }
+
+    @Override
+    public long getResizeCount() {
+        return resizeCount;
+    }
+
+    @Override
+    public String getLastDecision() {
+        return lastDecision;
+    }
+
+    @Override
+    public String[] getRecentDecisions() {
+        synchronized (recentDecisions) {
+            return recentDecisions.toArray(new String[0]);
+        }
+    }
+
+    @Override
+    public int getThreadsRunning() {
+        return threadsRunning;
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+}
@@ -0,0 +1,315 @@
+package com.zcckj.mcp.mysql.service;
+
+import com.zcckj.mcp.mysql.config.DataBaseConfig;
+import com.zcckj.mcp.mysql.config.SpillConfig;
+import com.zcckj.mcp.mysql.model.Resource;
+import com.zcckj.mcp.mysql.spill.SpilledResult;
+import com.zcckj.mcp.mysql.utils.JsonUtils;
+import com.zcckj.mcp.mysql.vo.ResultHandleVO;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 大结果集落盘服务
+ * 查询结果边读边写入本地临时文件，不在堆上物化整个结果集；客户端通过 MCP 资源
+ * mysql-result://{resultId}/{page} 分页读取，结果在最后一次访问后超过 TTL 即删除
+ */
+@Service
+@Slf4j
+public class ResultSpillService {
+
+    public static final String URI_PREFIX = "mysql-result://";
+
+    public static final String URI_TEMPLATE = URI_PREFIX + "{resultId}/{page}";
+
+    private static final String FILE_SUFFIX = ".rows";
+
+    private static final String PROCESS_DIR_PREFIX = "spill-";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataBaseConfig databaseConfig;
+
+    @Autowired
+    private SpillConfig spillConfig;
+
+    /**
+     * 结果集ID -> 落盘结果
+     */
+    private final Map<String, SpilledResult> results = new ConcurrentHashMap<>();
+
+    /**
+     * 本进程独占的落盘子目录，未开启或创建失败时为 null
+     */
+    private Path directory;
+
+    @PostConstruct
+    public void init() {
+        if (!spillConfig.isEnabled()) {
+            return;
+        }
+        Path base = spillConfig.getDirectory() == null || spillConfig.getDirectory().isEmpty()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "mysql-mcp-spill")
+                : Paths.get(spillConfig.getDirectory());
+        // 基础目录可能被多个实例共用，每个进程写自己的子目录，互不清理对方正在使用的文件
+        Path own = base.resolve(PROCESS_DIR_PREFIX + ProcessHandle.current().pid() + "-"
+                + UUID.randomUUID().toString().substring(0, 8));
+        try {
+            Files.createDirectories(own);
+        } catch (IOException e) {
+            log.error("创建落盘目录失败，export_query_result 不可用: {}", own, e);
+            return;
+        }
+        directory = own;
+        sweepStale(base);
+    }
+
+    /**
+     * MCP 资源模板，读取时按 {resultId}/{page} 匹配
+     */
+    public Resource resourceTemplate() {
+        return Resource.builder()
+                .uri(URI_TEMPLATE)
+                .name("query_result_page")
+                .description("export_query_result 导出的结果集分页，page 从 1 开始")
+                .mimeType("application/json")
+                .build();
+    }
+
+    /**
+     * 执行查询并把结果写入临时文件
+     *
+     * @param sql 已校验并改写过的 SELECT
+     * @return 结果集句柄
+     */
+    public ResultHandleVO spill(String sql) {
+        if (directory == null) {
+            throw new IllegalStateException("落盘目录不可用，无法导出结果集");
+        }
+        evictIfFull();
+        String id = UUID.randomUUID().toString().replace("-", "");
+        Path file = directory.resolve(id + FILE_SUFFIX);
+        long start = System.currentTimeMillis();
+
+        SpilledResult result = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            if (databaseConfig.getUrl().startsWith("jdbc:mysql:")) {
+                // MySQL 驱动默认把整个结果集读入内存，MIN_VALUE 表示逐行流式读取
+                ps.setFetchSize(Integer.MIN_VALUE);
+            }
+            return ps;
+        }, rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            List<String> columns = new ArrayList<>(meta.getColumnCount());
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                columns.add(meta.getColumnLabel(i));
+            }
+            SpilledResult.Writer writer;
+            try {
+                writer = new SpilledResult.Writer(id, file, columns, spillConfig.getPageRows(),
+                        spillConfig.getMaxRows(), spillConfig.getMaxBytes());
+            } catch (IOException e) {
+                throw new IllegalStateException("创建落盘文件失败: " + file, e);
+            }
+            try {
+                Object[] row = new Object[columns.size()];
+                while (rs.next()) {
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    if (!writer.append(row)) {
+                        break;
+                    }
+                }
+                return writer.finish();
+            } catch (IOException e) {
+                abortQuietly(writer);
+                throw new IllegalStateException("写入落盘文件失败: " + file, e);
+            } catch (SQLException | RuntimeException e) {
+                abortQuietly(writer);
+                throw e;
+            }
+        });
+
+        results.put(id, result);
+        log.info("结果集已落盘: {}，{} 行，{} 页，{} 字节，截断: {}，耗时 {} ms", id, result.getRowCount(),
+                result.getPages(), result.getBytes(), result.isTruncated(), System.currentTimeMillis() - start);
+        return ResultHandleVO.builder()
+                .resultId(id)
+                .resource(resourceTemplate())
+                .columns(result.getColumns())
+                .rowCount(result.getRowCount())
+                .pageRows(result.getPageRows())
+                .pages(result.getPages())
+                .truncated(result.isTruncated())
+                .ttlSeconds(spillConfig.getTtlMs() / 1000)
+                .build();
+    }
+
+    /**
+     * 读取一页，uri 形如 mysql-result://{resultId}/{page}
+     */
+    public McpSchema.ReadResourceResult read(String uri) {
+        if (uri == null || !uri.startsWith(URI_PREFIX)) {
+            throw new IllegalArgumentException("无效的结果集地址: " + uri);
+        }
+        String[] parts = uri.substring(URI_PREFIX.length()).split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("无效的结果集地址: " + uri + "，格式为 " + URI_TEMPLATE);
+        }
+        SpilledResult result = results.get(parts[0]);
+        if (result == null) {
+            throw new IllegalArgumentException("结果集不存在或已过期: " + parts[0]);
+        }
+        int page;
+        try {
+            page = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的页码: " + parts[1]);
+        }
+        result.touch();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("resultId", result.getId());
+        body.put("page", page);
+        body.put("pages", result.getPages());
+        body.put("rowCount", result.getRowCount());
+        body.put("columns", result.getColumns());
+        body.put("rows", result.readPage(page));
+        return new McpSchema.ReadResourceResult(List.of(
+                new McpSchema.TextResourceContents(uri, "application/json", JsonUtils.toJsonString(body))));
+    }
+
+    @Scheduled(fixedDelayString = "${config.spill.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        long expireBefore = System.currentTimeMillis() - spillConfig.getTtlMs();
+        results.values().removeIf(result -> {
+            if (result.getLastAccessMillis() >= expireBefore) {
+                return false;
+            }
+            log.info("结果集过期清理: {}", result.getId());
+            closeQuietly(result);
+            return true;
+        });
+        if (directory != null) {
+            // 其他实例按目录修改时间判断是否残留，运行中定期刷新
+            try {
+                Files.setLastModifiedTime(directory, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                log.warn("刷新落盘目录修改时间失败: {}", directory, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        results.values().forEach(this::closeQuietly);
+        results.clear();
+        if (directory != null) {
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * 清理基础目录下已退出进程留下的子目录和旧版本直接写在基础目录下的文件。
+     * 运行中的实例每个清理周期都会刷新自己子目录的修改时间，只有超过 TTL（且不少于两个清理周期）
+     * 未更新的才视为残留，其余文件一律不动
+     */
+    private void sweepStale(Path base) {
+        long staleBefore = System.currentTimeMillis()
+                - Math.max(spillConfig.getTtlMs(), 2 * spillConfig.getCleanupIntervalMs());
+        try (Stream<Path> entries = Files.list(base)) {
+            entries.filter(entry -> !entry.equals(directory))
+                    .filter(entry -> {
+                        String name = entry.getFileName().toString();
+                        return Files.isDirectory(entry) ? name.startsWith(PROCESS_DIR_PREFIX) : name.endsWith(FILE_SUFFIX);
+                    })
+                    .filter(entry -> lastModifiedMillis(entry) < staleBefore)
+                    .forEach(entry -> {
+                        log.info("清理残留的落盘文件: {}", entry);
+                        deleteRecursively(entry);
+                    });
+        } catch (IOException e) {
+            log.warn("扫描落盘目录失败: {}", base, e);
+        }
+    }
+
+    private long lastModifiedMillis(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            // 读不到修改时间（如已被其他实例删除）时不处理
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private void deleteRecursively(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("删除落盘目录失败: {}", root, e);
+        }
+    }
+
+    /**
+     * 达到个数上限时淘汰最久未访问的结果集
+     */
+    private void evictIfFull() {
+        while (results.size() >= spillConfig.getMaxResults()) {
+            Optional<SpilledResult> oldest = results.values().stream()
+                    .min(Comparator.comparingLong(SpilledResult::getLastAccessMillis));
+            if (oldest.isEmpty()) {
+                return;
+            }
+            if (results.remove(oldest.get().getId()) != null) {
+                log.info("结果集个数达到上限 {}，淘汰: {}", spillConfig.getMaxResults(), oldest.get().getId());
+                closeQuietly(oldest.get());
+            }
+        }
+    }
+
+    private void closeQuietly(SpilledResult result) {
+        try {
+            result.close();
+        } catch (IOException e) {
+            log.warn("删除落盘文件失败: {}", result.getFile(), e);
+        }
+    }
+
+    private void abortQuietly(SpilledResult.Writer writer) {
+        try {
+            writer.abort();
+        } catch (IOException e) {
+            log.warn("删除未完成的落盘文件失败", e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除落盘文件失败: {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.zcckj.mcp.mysql.service;
+
+import com.zcckj.mcp.mysql.config.DataBaseConfig;
+import com.zcckj.mcp.mysql.config.DataBaseLimitConfig;
+import com.zcckj.mcp.mysql.config.RollupConfig;
+import com.zcckj.mcp.mysql.config.RollupConfig.RollupDefinition;
+import com.zcckj.mcp.mysql.rollup.RollupTable;
+import com.zcckj.mcp.mysql.utils.SqlValueUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 预聚合存储
+ * 按配置定时从 MySQL 刷新 rollup，并在 SELECT 路径上尝试用 rollup 直接应答常见的 GROUP BY 查询，
+ * 不能覆盖的查询返回 null，由调用方回退到 MySQL
+ */
+@Service
+@Slf4j
+public class RollupStoreService {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("\\w+");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataBaseConfig databaseConfig;
+
+    @Autowired
+    private DataBaseLimitConfig dataBaseLimitConfig;
+
+    @Autowired
+    private RollupConfig rollupConfig;
+
+    /**
+     * 小写表名 -> 该表上的 rollup
+     */
+    private final Map<String, List<RollupTable>> rollupsByTable = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!rollupConfig.isEnabled()) {
+            return;
+        }
+        List<String> allowedTables = Optional.ofNullable(dataBaseLimitConfig.getReadOnlyTables())
+                .orElse(Collections.emptyList());
+        for (RollupDefinition definition : rollupConfig.getDefinitions()) {
+            if (!isValid(definition)) {
+                log.warn("忽略无效的预聚合配置: {}", definition);
+                continue;
+            }
+            boolean allowed = allowedTables.stream().anyMatch(t -> t.equalsIgnoreCase(definition.getTable()));
+            if (!allowed) {
+                log.warn("预聚合 {} 引用了未授权的表 {}，已忽略", definition.getName(), definition.getTable());
+                continue;
+            }
+            rollupsByTable.computeIfAbsent(definition.getTable().toLowerCase(), k -> new ArrayList<>())
+                    .add(new RollupTable(definition));
+            log.info("注册预聚合 {}: 表={} 维度={} 度量={}", definition.getName(), definition.getTable(),
+                    definition.getDimensions(), definition.getMeasures());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${config.rollup.refresh-interval-ms:60000}")
+    public void refreshAll() {
+        for (List<RollupTable> rollups : rollupsByTable.values()) {
+            for (RollupTable rollup : rollups) {
+                if (rollup.isDisabled()) {
+                    continue;
+                }
+                try {
+                    refresh(rollup);
+                } catch (Exception e) {
+                    log.error("刷新预聚合失败: {}", rollup.getName(), e);
+                }
+            }
+        }
+    }
+
+    private void refresh(RollupTable rollup) {
+        long start = System.currentTimeMillis();
+        String database = databaseConfig.getDatabase();
+        String watermarkColumn = rollup.getWatermarkColumn();
+        // 多取一行即可判断是否超过上限，不会把超限的分组全部读入内存
+        int limit = rollupConfig.getMaxCells() + 1;
+        rollup.setCollations(loadCollations(rollup.getTable()));
+
+        if (watermarkColumn == null) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(rollup.buildAggregateSql(database, null, limit));
+            if (disableIfTooLarge(rollup, rows.size())) {
+                return;
+            }
+            rollup.replace(rows, null);
+        } else {
+            String column = "`" + watermarkColumn + "`";
+            Object high = jdbcTemplate.queryForObject(String.format("SELECT MAX(%s) FROM `%s`.`%s`",
+                    column, database, rollup.getTable()), Object.class);
+            boolean full = !rollup.isLoaded() || rollup.getWatermark() == null
+                    || rollup.getIncrementalRefreshes() >= rollupConfig.getFullRefreshCycles();
+            if (high == null) {
+                rollup.replace(Collections.emptyList(), null);
+            } else if (full) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                        rollup.buildAggregateSql(database, column + " <= ?", limit), high);
+                if (disableIfTooLarge(rollup, rows.size())) {
+                    return;
+                }
+                rollup.replace(rows, high);
+            } else if (Objects.equals(high, rollup.getWatermark())) {
+                rollup.touch();
+            } else {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                        rollup.buildAggregateSql(database, column + " > ? AND " + column + " <= ?", limit),
+                        rollup.getWatermark(), high);
+                if (disableIfTooLarge(rollup, rows.size())) {
+                    return;
+                }
+                rollup.merge(rows, high);
+                if (disableIfTooLarge(rollup, rollup.size())) {
+                    return;
+                }
+            }
+        }
+        log.debug("刷新预聚合 {} 完成，分组数 {}，水位 {}，耗时 {} ms", rollup.getName(), rollup.size(),
+                rollup.getWatermark(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 读取字符列的排序规则，预聚合据此判断字符串维度能否在本地过滤和重新分组
+     *
+     * @return 小写列名 -> 排序规则
+     */
+    private Map<String, String> loadCollations(String table) {
+        Map<String, String> collations = new HashMap<>();
+        List<Map<String, Object>> columns = jdbcTemplate.queryForList(
+                "SELECT COLUMN_NAME, COLLATION_NAME FROM information_schema.COLUMNS "
+                        + "WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND COLLATION_NAME IS NOT NULL",
+                databaseConfig.getDatabase(), table);
+        for (Map<String, Object> column : columns) {
+            collations.put(SqlValueUtils.identifierKey((String) column.get("COLUMN_NAME")),
+                    (String) column.get("COLLATION_NAME"));
+        }
+        return collations;
+    }
+
+    /**
+     * 分组数超过上限时停用该预聚合，之后不再刷新
+     */
+    private boolean disableIfTooLarge(RollupTable rollup, int cells) {
+        if (cells <= rollupConfig.getMaxCells()) {
+            return false;
+        }
+        log.warn("预聚合 {} 分组数超过上限 {}，已停用，调整 max-cells 或维度后重启生效", rollup.getName(),
+                rollupConfig.getMaxCells());
+        rollup.disable();
+        return true;
+    }
+
+    /**
+     * 尝试用预聚合应答已校验的 SELECT
+     *
+     * @param select 已通过表权限校验并加上 LIMIT 的查询
+     * @return 查询结果；未命中时返回 null
+     */
+    public List<Map<String, Object>> tryAnswer(Select select) {
+        if (rollupsByTable.isEmpty()) {
+            return null;
+        }
+        if (select.getWithItemsList() != null && !select.getWithItemsList().isEmpty()) {
+            return null;
+        }
+        if (!(select.getSelectBody() instanceof PlainSelect)) {
+            return null;
+        }
+        PlainSelect plainSelect = (PlainSelect) select.getSelectBody();
+        if (!(plainSelect.getFromItem() instanceof Table)) {
+            return null;
+        }
+        Table table = (Table) plainSelect.getFromItem();
+        if (table.getSchemaName() != null && !table.getSchemaName().replace("`", "")
+                .equalsIgnoreCase(databaseConfig.getDatabase())) {
+            return null;
+        }
+        List<RollupTable> candidates = rollupsByTable.get(table.getName().replace("`", "").toLowerCase());
+        if (candidates == null) {
+            return null;
+        }
+        for (RollupTable rollup : candidates) {
+            List<Map<String, Object>> rows = rollup.answer(plainSelect);
+            if (rows != null) {
+                log.debug("查询命中预聚合 {}（刷新于 {}），返回 {} 条记录", rollup.getName(),
+                        new Date(rollup.getRefreshedAt()), rows.size());
+                return rows;
+            }
+        }
+        return null;
+    }
+
+    private boolean isValid(RollupDefinition definition) {
+        if (definition.getName() == null || !isIdentifier(definition.getTable())
+                || definition.getDimensions().isEmpty() && definition.getMeasures().isEmpty()) {
+            return false;
+        }
+        if (definition.getWatermarkColumn() != null && !isIdentifier(definition.getWatermarkColumn())) {
+            return false;
+        }
+        return definition.getDimensions().stream().allMatch(this::isIdentifier)
+                && definition.getMeasures().stream().allMatch(this::isIdentifier);
+    }
+
+    private boolean isIdentifier(String name) {
+        return name != null && IDENTIFIER.matcher(name).matches();
+    }
+}
@@ -0,0 +1,170 @@
+package com.zcckj.mcp.mysql.service;
+
+import com.zcckj.mcp.mysql.config.DataBaseConfig;
+import com.zcckj.mcp.mysql.config.DataBaseLimitConfig;
+import com.zcckj.mcp.mysql.config.SnapshotConfig;
+import com.zcckj.mcp.mysql.snapshot.TableSnapshot;
+import com.zcckj.mcp.mysql.utils.SqlValueUtils;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 小表快照服务
+ * 定时将行数和内存都在阈值内的授权表整表加载为列式快照，单表简单查询直接在本地应答，
+ * 不占用连接池连接；超过阈值或不支持的查询返回 null，由调用方回退到 MySQL
+ */
+@Service
+@Slf4j
+public class TableSnapshotService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataBaseConfig databaseConfig;
+
+    @Autowired
+    private DataBaseLimitConfig dataBaseLimitConfig;
+
+    @Autowired
+    private SnapshotConfig snapshotConfig;
+
+    /**
+     * 小写表名 -> 快照
+     */
+    private final Map<String, TableSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${config.snapshot.refresh-interval-ms:300000}")
+    public void refreshAll() {
+        if (!snapshotConfig.isEnabled()) {
+            return;
+        }
+        for (String table : candidateTables()) {
+            try {
+                refresh(table);
+            } catch (Exception e) {
+                log.error("刷新表快照失败: {}", table, e);
+            }
+        }
+    }
+
+    private void refresh(String table) {
+        long start = System.currentTimeMillis();
+        String key = table.toLowerCase();
+        String from = String.format("`%s`.`%s`", databaseConfig.getDatabase(), table);
+
+        // 先用 information_schema 的估算行数排除大表，避免对大表做全表扫描；估算值误差较大，放宽一倍
+        List<Long> estimated = jdbcTemplate.queryForList(
+                "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?",
+                Long.class, databaseConfig.getDatabase(), table);
+        if (estimated.isEmpty() || estimated.get(0) != null && estimated.get(0) > 2L * snapshotConfig.getMaxRows()) {
+            dropSnapshot(key, "估算行数 " + estimated + " 超过上限 " + snapshotConfig.getMaxRows());
+            return;
+        }
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT * FROM " + from + " LIMIT " + (snapshotConfig.getMaxRows() + 1));
+        if (rows.size() > snapshotConfig.getMaxRows()) {
+            dropSnapshot(key, "行数超过上限 " + snapshotConfig.getMaxRows());
+            return;
+        }
+        TableSnapshot snapshot = TableSnapshot.of(table, rows, loadCollations(table));
+        long bytes = snapshot.estimateBytes();
+        if (bytes > snapshotConfig.getMaxBytes()) {
+            dropSnapshot(key, "估算内存 " + bytes + " 字节超过上限 " + snapshotConfig.getMaxBytes());
+            return;
+        }
+        snapshots.put(key, snapshot);
+        log.debug("刷新表快照 {} 完成，{} 行，约 {} 字节，耗时 {} ms", table, rows.size(), bytes,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 读取字符列的排序规则，快照据此判断字符串条件和排序能否在本地执行
+     *
+     * @return 小写列名 -> 排序规则
+     */
+    private Map<String, String> loadCollations(String table) {
+        Map<String, String> collations = new HashMap<>();
+        List<Map<String, Object>> columns = jdbcTemplate.queryForList(
+                "SELECT COLUMN_NAME, COLLATION_NAME FROM information_schema.COLUMNS "
+                        + "WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND COLLATION_NAME IS NOT NULL",
+                databaseConfig.getDatabase(), table);
+        for (Map<String, Object> column : columns) {
+            collations.put(SqlValueUtils.identifierKey((String) column.get("COLUMN_NAME")),
+                    (String) column.get("COLLATION_NAME"));
+        }
+        return collations;
+    }
+
+    private void dropSnapshot(String key, String reason) {
+        if (snapshots.remove(key) != null) {
+            log.info("移除表快照 {}: {}", key, reason);
+        } else {
+            log.debug("表 {} 不做快照: {}", key, reason);
+        }
+    }
+
+    /**
+     * 候选表：配置的表与授权表的交集，未配置时为全部授权表
+     */
+    private List<String> candidateTables() {
+        List<String> allowed = Optional.ofNullable(dataBaseLimitConfig.getReadOnlyTables())
+                .orElse(Collections.emptyList());
+        if (snapshotConfig.getTables().isEmpty()) {
+            return allowed;
+        }
+        Set<String> configured = snapshotConfig.getTables().stream()
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet());
+        return allowed.stream()
+                .filter(t -> configured.contains(t.toLowerCase()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 尝试用快照应答已校验的 SELECT
+     *
+     * @param select 已通过表权限校验并加上 LIMIT 的查询
+     * @return 查询结果；未命中时返回 null
+     */
+    public List<Map<String, Object>> tryAnswer(Select select) {
+        if (snapshots.isEmpty()) {
+            return null;
+        }
+        if (select.getWithItemsList() != null && !select.getWithItemsList().isEmpty()) {
+            return null;
+        }
+        if (!(select.getSelectBody() instanceof PlainSelect)) {
+            return null;
+        }
+        PlainSelect plainSelect = (PlainSelect) select.getSelectBody();
+        if (!(plainSelect.getFromItem() instanceof Table)) {
+            return null;
+        }
+        Table table = (Table) plainSelect.getFromItem();
+        if (table.getSchemaName() != null && !table.getSchemaName().replace("`", "")
+                .equalsIgnoreCase(databaseConfig.getDatabase())) {
+            return null;
+        }
+        TableSnapshot snapshot = snapshots.get(table.getName().replace("`", "").toLowerCase());
+        if (snapshot == null) {
+            return null;
+        }
+        List<Map<String, Object>> rows = snapshot.answer(plainSelect);
+        if (rows != null) {
+            log.debug("查询命中表快照 {}（加载于 {}），返回 {} 条记录", snapshot.getTable(),
+                    new Date(snapshot.getLoadedAt()), rows.size());
+        }
+        return rows;
+    }
+}
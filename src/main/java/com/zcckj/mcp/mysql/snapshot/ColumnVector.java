@@ -0,0 +1,153 @@
+package com.zcckj.mcp.mysql.snapshot;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 快照中的一列
+ * 整数列存为 long[]，字符串列做字典编码，其余类型按对象数组保存
+ */
+abstract class ColumnVector {
+
+    abstract Object get(int row);
+
+    /**
+     * 估算占用的堆内存字节数
+     */
+    abstract long estimateBytes();
+
+    static ColumnVector of(List<Object> values) {
+        boolean integral = true;
+        boolean strings = true;
+        Class<?> integralType = null;
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (!(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+                    || integralType != null && integralType != value.getClass()) {
+                integral = false;
+            } else {
+                integralType = value.getClass();
+            }
+            if (!(value instanceof String)) {
+                strings = false;
+            }
+        }
+        if (integral && integralType != null) {
+            return new LongColumn(values, integralType);
+        }
+        if (strings) {
+            return new DictionaryColumn(values);
+        }
+        return new ObjectColumn(values);
+    }
+
+    /**
+     * 整数列，保留原始装箱类型以保证与 JDBC 返回值一致
+     */
+    static class LongColumn extends ColumnVector {
+        private final long[] values;
+        private final BitSet nulls;
+        private final Class<?> type;
+
+        LongColumn(List<Object> source, Class<?> type) {
+            this.values = new long[source.size()];
+            this.nulls = new BitSet(source.size());
+            this.type = type;
+            for (int i = 0; i < values.length; i++) {
+                Object value = source.get(i);
+                if (value == null) {
+                    nulls.set(i);
+                } else {
+                    values[i] = ((Number) value).longValue();
+                }
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            long value = values[row];
+            if (type == Integer.class) {
+                return (int) value;
+            }
+            if (type == Short.class) {
+                return (short) value;
+            }
+            if (type == Byte.class) {
+                return (byte) value;
+            }
+            return value;
+        }
+
+        @Override
+        long estimateBytes() {
+            return 16L + values.length * 8L + values.length / 8;
+        }
+    }
+
+    /**
+     * 字典编码的字符串列，-1 表示 NULL
+     */
+    static class DictionaryColumn extends ColumnVector {
+        private final int[] codes;
+        private final String[] dictionary;
+
+        DictionaryColumn(List<Object> source) {
+            this.codes = new int[source.size()];
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < codes.length; i++) {
+                String value = (String) source.get(i);
+                codes[i] = value == null ? -1 : index.computeIfAbsent(value, k -> index.size());
+            }
+            this.dictionary = new String[index.size()];
+            index.forEach((value, code) -> dictionary[code] = value);
+        }
+
+        @Override
+        Object get(int row) {
+            int code = codes[row];
+            return code < 0 ? null : dictionary[code];
+        }
+
+        @Override
+        long estimateBytes() {
+            long bytes = 16L + codes.length * 4L + dictionary.length * 8L;
+            for (String value : dictionary) {
+                bytes += 40L + value.length() * 2L;
+            }
+            return bytes;
+        }
+    }
+
+    static class ObjectColumn extends ColumnVector {
+        private final Object[] values;
+
+        ObjectColumn(List<Object> source) {
+            this.values = source.toArray();
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        long estimateBytes() {
+            long bytes = 16L + values.length * 8L;
+            for (Object value : values) {
+                if (value instanceof byte[]) {
+                    bytes += 16L + ((byte[]) value).length;
+                } else if (value != null) {
+                    bytes += 32L;
+                }
+            }
+            return bytes;
+        }
+    }
+}
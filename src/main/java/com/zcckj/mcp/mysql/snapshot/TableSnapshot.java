@@ -0,0 +1,418 @@
+package com.zcckj.mcp.mysql.snapshot;
+
+import com.zcckj.mcp.mysql.utils.SqlValueUtils;
+import lombok.Getter;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.ComparisonOperator;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.*;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * 单表的列式内存快照
+ * 支持单表查询上的列投影、比较/BETWEEN/IN/IS NULL 过滤的 AND/OR 组合、按列排序和 LIMIT，
+ * 其它查询返回 null 交给 MySQL。
+ * 字符串的大小顺序取决于排序规则的 UCA 权重，字符列上的范围条件和排序一律交给 MySQL；
+ * 等值 / IN 条件只在排序规则可以本地精确复现（*_bin）时执行，*_ci、*_cs 涉及重音和全半角等差异，同样交给 MySQL
+ */
+public class TableSnapshot {
+
+    @Getter
+    private final String table;
+
+    private final List<String> columnNames;
+
+    /**
+     * 小写列名 -> 列下标
+     */
+    private final Map<String, Integer> columnIndex;
+
+    private final ColumnVector[] columns;
+
+    /**
+     * 各列的排序规则，非字符列或未知时为 null
+     */
+    private final String[] collations;
+
+    @Getter
+    private final int rowCount;
+
+    @Getter
+    private final long loadedAt;
+
+    private TableSnapshot(String table, List<String> columnNames, ColumnVector[] columns, String[] collations,
+                          int rowCount) {
+        this.table = table;
+        this.columnNames = columnNames;
+        this.columns = columns;
+        this.collations = collations;
+        this.rowCount = rowCount;
+        this.loadedAt = System.currentTimeMillis();
+        this.columnIndex = new HashMap<>();
+        for (int i = 0; i < columnNames.size(); i++) {
+            columnIndex.put(SqlValueUtils.identifierKey(columnNames.get(i)), i);
+        }
+    }
+
+    /**
+     * 由 JdbcTemplate.queryForList 的整表结果构建快照
+     *
+     * @param collations 小写列名 -> information_schema.COLUMNS.COLLATION_NAME，只需包含字符列
+     */
+    public static TableSnapshot of(String table, List<Map<String, Object>> rows, Map<String, String> collations) {
+        List<String> columnNames = rows.isEmpty()
+                ? Collections.emptyList()
+                : new ArrayList<>(rows.get(0).keySet());
+        ColumnVector[] columns = new ColumnVector[columnNames.size()];
+        String[] columnCollations = new String[columnNames.size()];
+        for (int c = 0; c < columns.length; c++) {
+            List<Object> values = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                values.add(row.get(columnNames.get(c)));
+            }
+            columns[c] = ColumnVector.of(values);
+            columnCollations[c] = collations.get(SqlValueUtils.identifierKey(columnNames.get(c)));
+        }
+        return new TableSnapshot(table, columnNames, columns, columnCollations, rows.size());
+    }
+
+    public long estimateBytes() {
+        long bytes = 0;
+        for (ColumnVector column : columns) {
+            bytes += column.estimateBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * 尝试在快照上执行查询
+     *
+     * @param select 单表 SELECT，调用方已完成表名和 LIMIT 校验
+     * @return 与 JdbcTemplate.queryForList 结构一致的结果；查询不受支持时返回 null
+     */
+    public List<Map<String, Object>> answer(PlainSelect select) {
+        if (columns.length == 0
+                || select.getJoins() != null && !select.getJoins().isEmpty()
+                || select.getDistinct() != null
+                || select.getGroupBy() != null
+                || select.getHaving() != null
+                || select.getIntoTables() != null
+                || select.getTop() != null
+                || select.getFetch() != null
+                || select.getOffset() != null) {
+            return null;
+        }
+
+        // 1. 投影
+        List<String> labels = new ArrayList<>();
+        List<Integer> projection = new ArrayList<>();
+        for (SelectItem item : select.getSelectItems()) {
+            if (item instanceof AllColumns || item instanceof AllTableColumns) {
+                for (int c = 0; c < columns.length; c++) {
+                    labels.add(columnNames.get(c));
+                    projection.add(c);
+                }
+                continue;
+            }
+            if (!(item instanceof SelectExpressionItem)
+                    || !(((SelectExpressionItem) item).getExpression() instanceof Column)) {
+                return null;
+            }
+            SelectExpressionItem expressionItem = (SelectExpressionItem) item;
+            Column column = (Column) expressionItem.getExpression();
+            Integer index = columnIndex.get(SqlValueUtils.columnKey(column));
+            if (index == null) {
+                return null;
+            }
+            labels.add(expressionItem.getAlias() != null
+                    ? SqlValueUtils.unquote(expressionItem.getAlias().getName())
+                    : SqlValueUtils.unquote(column.getColumnName()));
+            projection.add(index);
+        }
+
+        // 2. 过滤
+        IntPredicate filter = row -> true;
+        if (select.getWhere() != null) {
+            filter = buildFilter(select.getWhere());
+            if (filter == null) {
+                return null;
+            }
+        }
+
+        // 3. 排序：{列下标, 1 升序 / -1 降序}
+        List<int[]> orders = new ArrayList<>();
+        if (select.getOrderByElements() != null) {
+            for (OrderByElement element : select.getOrderByElements()) {
+                if (element.getNullOrdering() != null) {
+                    return null;
+                }
+                int column = resolveOrderColumn(element.getExpression(), labels, projection);
+                if (column < 0) {
+                    return null;
+                }
+                orders.add(new int[]{column, element.isAsc() ? 1 : -1});
+            }
+        }
+
+        // 4. 分页
+        long offset = 0;
+        long rowLimit = -1;
+        Limit limit = select.getLimit();
+        if (limit != null) {
+            if (limit.isLimitAll() || limit.isLimitNull()) {
+                return null;
+            }
+            if (limit.getRowCount() != null) {
+                if (!(limit.getRowCount() instanceof LongValue)) {
+                    return null;
+                }
+                rowLimit = ((LongValue) limit.getRowCount()).getValue();
+            }
+            if (limit.getOffset() != null) {
+                if (!(limit.getOffset() instanceof LongValue)) {
+                    return null;
+                }
+                offset = ((LongValue) limit.getOffset()).getValue();
+            }
+        }
+
+        try {
+            return execute(filter, orders, offset, rowLimit, labels, projection);
+        } catch (IllegalArgumentException e) {
+            // 字面量与列类型无法可靠比较，交给 MySQL
+            return null;
+        }
+    }
+
+    private List<Map<String, Object>> execute(IntPredicate filter, List<int[]> orders, long offset, long rowLimit,
+                                              List<String> labels, List<Integer> projection) {
+        List<Integer> matched = new ArrayList<>();
+        boolean earlyStop = orders.isEmpty() && rowLimit >= 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (filter.test(row)) {
+                matched.add(row);
+                if (earlyStop && matched.size() >= offset + rowLimit) {
+                    break;
+                }
+            }
+        }
+
+        if (!orders.isEmpty()) {
+            matched.sort((left, right) -> {
+                for (int[] order : orders) {
+                    ColumnVector column = columns[order[0]];
+                    int result = SqlValueUtils.compare(column.get(left), column.get(right)) * order[1];
+                    if (result != 0) {
+                        return result;
+                    }
+                }
+                return 0;
+            });
+        }
+
+        int from = (int) Math.min(offset, matched.size());
+        int to = rowLimit < 0 ? matched.size() : (int) Math.min(matched.size(), from + rowLimit);
+        List<Map<String, Object>> result = new ArrayList<>(to - from);
+        for (int row : matched.subList(from, to)) {
+            Map<String, Object> mapped = new LinkedCaseInsensitiveMap<>(projection.size());
+            for (int i = 0; i < projection.size(); i++) {
+                mapped.put(labels.get(i), columns[projection.get(i)].get(row));
+            }
+            result.add(mapped);
+        }
+        return result;
+    }
+
+    private int resolveOrderColumn(Expression expression, List<String> labels, List<Integer> projection) {
+        if (expression instanceof LongValue) {
+            long position = ((LongValue) expression).getValue();
+            return position >= 1 && position <= projection.size() ? projection.get((int) position - 1) : -1;
+        }
+        if (!(expression instanceof Column)) {
+            return -1;
+        }
+        Column column = (Column) expression;
+        String key = SqlValueUtils.columnKey(column);
+        if (column.getTable() == null) {
+            for (int i = 0; i < labels.size(); i++) {
+                if (key.equals(SqlValueUtils.identifierKey(labels.get(i)))) {
+                    return projection.get(i);
+                }
+            }
+        }
+        Integer index = columnIndex.get(key);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 构建行过滤器，遇到不支持的表达式返回 null
+     * 叶子条件中 NULL 参与比较的结果（UNKNOWN）按 false 处理，在没有 NOT 的 AND/OR 组合下与 MySQL 一致
+     */
+    private IntPredicate buildFilter(Expression expression) {
+        if (expression instanceof Parenthesis) {
+            return buildFilter(((Parenthesis) expression).getExpression());
+        }
+        if (expression instanceof AndExpression || expression instanceof OrExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            IntPredicate left = buildFilter(binary.getLeftExpression());
+            IntPredicate right = buildFilter(binary.getRightExpression());
+            if (left == null || right == null) {
+                return null;
+            }
+            return expression instanceof AndExpression ? left.and(right) : left.or(right);
+        }
+        if (expression instanceof ComparisonOperator) {
+            ComparisonOperator comparison = (ComparisonOperator) expression;
+            String operator = comparison.getStringExpression();
+            Expression columnSide = comparison.getLeftExpression();
+            Expression valueSide = comparison.getRightExpression();
+            if (!(columnSide instanceof Column)) {
+                columnSide = comparison.getRightExpression();
+                valueSide = comparison.getLeftExpression();
+                operator = flip(operator);
+            }
+            Integer column = column(columnSide);
+            Object literal = SqlValueUtils.literalValue(valueSide);
+            if (column == null || literal == null || operator == null) {
+                return null;
+            }
+            return comparisonFilter(columns[column], collations[column], operator, literal);
+        }
+        if (expression instanceof Between) {
+            Between between = (Between) expression;
+            Integer index = column(between.getLeftExpression());
+            Object start = SqlValueUtils.literalValue(between.getBetweenExpressionStart());
+            Object end = SqlValueUtils.literalValue(between.getBetweenExpressionEnd());
+            if (index == null || start == null || end == null) {
+                return null;
+            }
+            ColumnVector column = columns[index];
+            boolean not = between.isNot();
+            return row -> {
+                Object value = column.get(row);
+                if (value == null) {
+                    return false;
+                }
+                boolean inside = SqlValueUtils.compare(value, start) >= 0 && SqlValueUtils.compare(value, end) <= 0;
+                return inside != not;
+            };
+        }
+        if (expression instanceof InExpression) {
+            InExpression in = (InExpression) expression;
+            Integer index = column(in.getLeftExpression());
+            if (index == null || !(in.getRightItemsList() instanceof ExpressionList)) {
+                return null;
+            }
+            ColumnVector column = columns[index];
+            String collation = collations[index];
+            List<Object> values = new ArrayList<>();
+            for (Expression item : ((ExpressionList) in.getRightItemsList()).getExpressions()) {
+                Object value = SqlValueUtils.literalValue(item);
+                if (value == null) {
+                    return null;
+                }
+                values.add(value);
+            }
+            boolean not = in.isNot();
+            return row -> {
+                Object value = column.get(row);
+                if (value == null) {
+                    return false;
+                }
+                boolean hit = false;
+                for (Object candidate : values) {
+                    if (SqlValueUtils.sqlEquals(value, candidate, collation)) {
+                        hit = true;
+                        break;
+                    }
+                }
+                return hit != not;
+            };
+        }
+        if (expression instanceof IsNullExpression) {
+            IsNullExpression isNull = (IsNullExpression) expression;
+            Integer index = column(isNull.getLeftExpression());
+            if (index == null) {
+                return null;
+            }
+            ColumnVector column = columns[index];
+            boolean not = isNull.isNot();
+            return row -> (column.get(row) == null) != not;
+        }
+        return null;
+    }
+
+    private static IntPredicate comparisonFilter(ColumnVector column, String collation, String operator,
+                                                Object literal) {
+        switch (operator) {
+            case "=":
+                return row -> SqlValueUtils.sqlEquals(column.get(row), literal, collation);
+            case "<>":
+            case "!=":
+                return row -> {
+                    Object value = column.get(row);
+                    return value != null && !SqlValueUtils.sqlEquals(value, literal, collation);
+                };
+            case ">":
+                return row -> {
+                    Object value = column.get(row);
+                    return value != null && SqlValueUtils.compare(value, literal) > 0;
+                };
+            case ">=":
+                return row -> {
+                    Object value = column.get(row);
+                    return value != null && SqlValueUtils.compare(value, literal) >= 0;
+                };
+            case "<":
+                return row -> {
+                    Object value = column.get(row);
+                    return value != null && SqlValueUtils.compare(value, literal) < 0;
+                };
+            case "<=":
+                return row -> {
+                    Object value = column.get(row);
+                    return value != null && SqlValueUtils.compare(value, literal) <= 0;
+                };
+            default:
+                return null;
+        }
+    }
+
+    private static String flip(String operator) {
+        switch (operator) {
+            case ">":
+                return "<";
+            case ">=":
+                return "<=";
+            case "<":
+                return ">";
+            case "<=":
+                return ">=";
+            case "=":
+            case "<>":
+            case "!=":
+                return operator;
+            default:
+                return null;
+        }
+    }
+
+    private Integer column(Expression expression) {
+        if (!(expression instanceof Column)) {
+            return null;
+        }
+        return columnIndex.get(SqlValueUtils.columnKey((Column) expression));
+    }
+}
@@ -0,0 +1,263 @@
+package com.zcckj.mcp.mysql.spill;
+
+import lombok.Getter;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 落盘的查询结果
+ * <p>
+ * 文件为紧凑的二进制行格式：每行依次写出各列，每列一个类型标记加取值
+ * （整数 8 字节、浮点 8 字节、布尔 1 字节、字符串和定点数为长度 + UTF-8 字节，NULL 只有标记）。
+ * 写入时按页记录起始偏移，读取时整文件只读内存映射，按页偏移直接定位，不把结果集加载到堆上。
+ */
+public class SpilledResult implements Closeable {
+
+    private static final byte NULL = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte STRING = 3;
+    private static final byte DECIMAL = 4;
+    private static final byte BOOLEAN = 5;
+
+    @Getter
+    private final String id;
+
+    @Getter
+    private final Path file;
+
+    @Getter
+    private final List<String> columns;
+
+    @Getter
+    private final int rowCount;
+
+    @Getter
+    private final int pageRows;
+
+    /**
+     * 是否因行数或文件大小上限被截断
+     */
+    @Getter
+    private final boolean truncated;
+
+    @Getter
+    private final long bytes;
+
+    /**
+     * 第 i 页第一行在文件中的偏移
+     */
+    private final long[] pageOffsets;
+
+    private final MappedByteBuffer buffer;
+
+    @Getter
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    private SpilledResult(String id, Path file, List<String> columns, int rowCount, int pageRows, boolean truncated,
+                          long[] pageOffsets) throws IOException {
+        this.id = id;
+        this.file = file;
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.pageRows = pageRows;
+        this.truncated = truncated;
+        this.pageOffsets = pageOffsets;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.bytes = channel.size();
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+        }
+    }
+
+    public int getPages() {
+        return pageOffsets.length;
+    }
+
+    public void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * 读取一页，页码从 1 开始
+     *
+     * @return 每行为按列顺序排列的取值
+     */
+    public List<Object[]> readPage(int page) {
+        if (page < 1 || page > pageOffsets.length) {
+            throw new IllegalArgumentException("页码超出范围: " + page + "，共 " + pageOffsets.length + " 页");
+        }
+        // duplicate 出独立的读位置，多个请求可以并发读取同一个映射
+        ByteBuffer in = buffer.duplicate();
+        in.position((int) pageOffsets[page - 1]);
+        int rows = Math.min(pageRows, rowCount - (page - 1) * pageRows);
+        List<Object[]> result = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            Object[] row = new Object[columns.size()];
+            for (int c = 0; c < row.length; c++) {
+                row[c] = readValue(in);
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * 删除落盘文件；映射区域在缓冲区被回收后释放
+     */
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case LONG:
+                return in.getLong();
+            case DOUBLE:
+                return in.getDouble();
+            case BOOLEAN:
+                return in.get() != 0;
+            case STRING:
+                return readString(in);
+            case DECIMAL:
+                return new BigDecimal(readString(in));
+            default:
+                throw new IllegalStateException("落盘文件损坏，未知的类型标记: " + tag);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 结果集写入器，逐行追加，写完后 {@link #finish()} 生成可读的结果
+     */
+    public static class Writer {
+
+        private final String id;
+
+        private final Path file;
+
+        private final List<String> columns;
+
+        private final int pageRows;
+
+        private final int maxRows;
+
+        private final long maxBytes;
+
+        private final DataOutputStream out;
+
+        private long[] pageOffsets = new long[16];
+
+        private int rowCount;
+
+        private boolean truncated;
+
+        public Writer(String id, Path file, List<String> columns, int pageRows, int maxRows, long maxBytes)
+                throws IOException {
+            this.id = id;
+            this.file = file;
+            this.columns = columns;
+            this.pageRows = pageRows;
+            this.maxRows = maxRows;
+            // 整文件映射受 ByteBuffer 的 int 寻址限制，留出最后一行越过上限的余量
+            this.maxBytes = Math.min(maxBytes, 1L << 30);
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+        }
+
+        /**
+         * 追加一行
+         *
+         * @return 达到行数或大小上限时返回 false，调用方应停止读取
+         */
+        public boolean append(Object[] row) throws IOException {
+            if (rowCount >= maxRows || out.size() >= maxBytes) {
+                truncated = true;
+                return false;
+            }
+            if (rowCount % pageRows == 0) {
+                int page = rowCount / pageRows;
+                if (page == pageOffsets.length) {
+                    pageOffsets = Arrays.copyOf(pageOffsets, page * 2);
+                }
+                pageOffsets[page] = out.size();
+            }
+            for (Object value : row) {
+                writeValue(value);
+            }
+            rowCount++;
+            return true;
+        }
+
+        public SpilledResult finish() throws IOException {
+            out.close();
+            int pages = (rowCount + pageRows - 1) / pageRows;
+            return new SpilledResult(id, file, columns, rowCount, pageRows, truncated, Arrays.copyOf(pageOffsets, pages));
+        }
+
+        /**
+         * 写入失败时关闭并删除文件
+         */
+        public void abort() throws IOException {
+            out.close();
+            Files.deleteIfExists(file);
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                out.writeByte(LONG);
+                out.writeLong(((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof BigDecimal) {
+                out.writeByte(DECIMAL);
+                writeString(((BigDecimal) value).toPlainString());
+            } else if (value instanceof BigInteger) {
+                out.writeByte(DECIMAL);
+                writeString(value.toString());
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeByte((Boolean) value ? 1 : 0);
+            } else if (value instanceof byte[]) {
+                out.writeByte(STRING);
+                writeString(Base64.getEncoder().encodeToString((byte[]) value));
+            } else {
+                // 日期时间等其余类型按文本保存，与 execute_tool 的输出一致
+                out.writeByte(STRING);
+                writeString(String.valueOf(value));
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.zcckj.mcp.mysql.utils;
+
+import com.zcckj.mcp.mysql.model.SqlParameter;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>参数化查询工具类</p>
+ * 负责统计 SQL 模板中的 ? 占位符，以及把带类型的参数绑定到 {@link PreparedStatement}。
+ * 参数类型或取值不合法时抛出 {@link IllegalArgumentException}。
+ */
+public class PreparedSqlUtils {
+
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private PreparedSqlUtils() {
+    }
+
+    /**
+     * 统计 SQL 中的 ? 占位符个数，跳过字符串字面量、反引号标识符和注释中的问号。
+     * 参数按位置绑定，SQL 解析器同样接受的编号参数（?1）和命名参数（:name）无法对应到参数列表，直接拒绝
+     *
+     * @throws IllegalArgumentException 含编号参数或命名参数
+     */
+    public static int countPlaceholders(String sql) {
+        int count = 0;
+        int length = sql.length();
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i, c);
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-' || c == '#') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '?') {
+                if (i + 1 < length && Character.isDigit(sql.charAt(i + 1))) {
+                    throw new IllegalArgumentException("不支持编号占位符，请只使用 ?");
+                }
+                count++;
+            } else if (c == ':' && i + 1 < length
+                    && (Character.isLetter(sql.charAt(i + 1)) || sql.charAt(i + 1) == '_')) {
+                throw new IllegalArgumentException("不支持命名参数，请使用 ? 占位符");
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按顺序绑定已转换的 JDBC 值，下标从 1 开始
+     */
+    public static void bind(PreparedStatement ps, List<Object> values) throws SQLException {
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                ps.setNull(i + 1, Types.NULL);
+            } else {
+                ps.setObject(i + 1, value);
+            }
+        }
+    }
+
+    /**
+     * 把带类型的参数转换为 JDBC 值
+     *
+     * @param param 参数
+     * @return JDBC 值；null 类型返回 null
+     */
+    public static Object toJdbcValue(SqlParameter param) {
+        if (param == null || param.getType() == null) {
+            throw new IllegalArgumentException("参数缺少类型");
+        }
+        String type = param.getType().trim().toLowerCase(Locale.ROOT);
+        if ("null".equals(type)) {
+            return null;
+        }
+        String value = param.getValue();
+        if (value == null) {
+            throw new IllegalArgumentException("类型为 " + type + " 的参数缺少取值，空值请使用 null 类型");
+        }
+        try {
+            switch (type) {
+                case "string":
+                    return value;
+                case "long":
+                    return Long.parseLong(value.trim());
+                case "decimal":
+                    return new BigDecimal(value.trim());
+                case "double":
+                    return Double.parseDouble(value.trim());
+                case "boolean":
+                    return parseBoolean(value.trim());
+                case "date":
+                    return Date.valueOf(LocalDate.parse(value.trim()));
+                case "datetime":
+                    return Timestamp.valueOf(LocalDateTime.parse(value.trim(), DATETIME));
+                default:
+                    break;
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("参数取值与类型 " + type + " 不匹配: " + value, e);
+        }
+        throw new IllegalArgumentException("不支持的参数类型: " + param.getType());
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value) || "1".equals(value)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(value) || "0".equals(value)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException(value);
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        for (int i = start + 1; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i++;
+            } else if (c == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        return sql.length();
+    }
+}
@@ -0,0 +1,182 @@
+package com.zcckj.mcp.mysql.utils;
+
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.schema.Column;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * <p>本地求值工具类</p>
+ * 供预聚合、快照等本地应答路径使用，负责 SQL 字面量解析以及按 MySQL 语义比较 JDBC 返回值。
+ * 无法保证与 MySQL 结果一致的比较（如数字与字符串、日期与字符串混比）一律抛出
+ * {@link IllegalArgumentException}，调用方据此回退到 MySQL 执行。
+ */
+public class SqlValueUtils {
+
+    private SqlValueUtils() {
+    }
+
+    /**
+     * 解析字面量表达式
+     *
+     * @param expression 表达式
+     * @return Long/Double/String 值；不是受支持的字面量时返回 null
+     */
+    public static Object literalValue(Expression expression) {
+        if (expression instanceof LongValue) {
+            return ((LongValue) expression).getValue();
+        }
+        if (expression instanceof DoubleValue) {
+            return ((DoubleValue) expression).getValue();
+        }
+        if (expression instanceof StringValue) {
+            return ((StringValue) expression).getValue();
+        }
+        if (expression instanceof SignedExpression) {
+            SignedExpression signed = (SignedExpression) expression;
+            Object inner = literalValue(signed.getExpression());
+            if (inner instanceof Number && signed.getSign() == '-') {
+                return toBigDecimal(inner).negate();
+            }
+            if (inner instanceof Number && signed.getSign() == '+') {
+                return inner;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 去掉反引号并转小写后的列名，用于不区分大小写的列匹配
+     */
+    public static String columnKey(Column column) {
+        return identifierKey(column.getColumnName());
+    }
+
+    public static String identifierKey(String name) {
+        return name == null ? null : name.replace("`", "").toLowerCase();
+    }
+
+    /**
+     * 去掉别名两侧的反引号或引号
+     */
+    public static String unquote(String name) {
+        if (name.length() >= 2 && (name.startsWith("`") || name.startsWith("'") || name.startsWith("\""))) {
+            return name.substring(1, name.length() - 1);
+        }
+        return name;
+    }
+
+    /**
+     * 按 MySQL 语义比较两个值，NULL 排在最前（与 MySQL ASC 排序一致）
+     * 字符串的大小顺序取决于列的排序规则（UCA 权重、重音、全半角），本地不比较
+     *
+     * @throws IllegalArgumentException 两个值类型无法可靠比较，或两个值都是字符串
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compare(Object left, Object right) {
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : -1) : 1;
+        }
+        if (isNumeric(left) && isNumeric(right)) {
+            return toBigDecimal(left).compareTo(toBigDecimal(right));
+        }
+        if (left instanceof String && right instanceof String) {
+            throw new IllegalArgumentException("字符串的大小顺序取决于排序规则，无法在本地比较");
+        }
+        if (left.getClass() == right.getClass() && left instanceof Comparable) {
+            return ((Comparable) left).compareTo(right);
+        }
+        throw new IllegalArgumentException("无法在本地比较 " + left.getClass().getSimpleName()
+                + " 与 " + right.getClass().getSimpleName());
+    }
+
+    private static String stripTrailingSpaces(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end == value.length() ? value : value.substring(0, end);
+    }
+
+    /**
+     * 按列排序规则的 SQL 等值判断，任一侧为 NULL 时结果为 false
+     *
+     * @param collation 列的排序规则，非字符列或未知时为 null
+     * @throws IllegalArgumentException 无法在本地可靠判断，见 {@link #groupKey(Object, String)}
+     */
+    public static boolean sqlEquals(Object left, Object right, String collation) {
+        if (left == null || right == null) {
+            return false;
+        }
+        if (left instanceof String && right instanceof String) {
+            return groupKey(left, collation).equals(groupKey(right, collation));
+        }
+        return compare(left, right) == 0;
+    }
+
+    /**
+     * 分组用的归一化取值，使该排序规则下相等的值落入同一分组
+     *
+     * @param collation 列的排序规则，非字符列或未知时为 null
+     * @throws IllegalArgumentException 字符串所在列的排序规则无法在本地精确复现
+     */
+    public static Object groupKey(Object value, String collation) {
+        if (!(value instanceof String)) {
+            return value;
+        }
+        if (!isExactCollation(collation)) {
+            throw new IllegalArgumentException("排序规则 " + collation + " 下的字符串比较无法在本地复现");
+        }
+        return isPadSpace(collation) ? stripTrailingSpaces((String) value) : value;
+    }
+
+    /**
+     * 该排序规则下的字符串等值能否在本地精确复现
+     * 只有 *_bin 按码点比较；*_ci/*_cs 还涉及重音、全半角和 UCA 权重，交给 MySQL
+     */
+    public static boolean isExactCollation(String collation) {
+        return collation != null && collation.toLowerCase().endsWith("_bin");
+    }
+
+    /**
+     * MySQL 8.0 的 *_0900_* 和 MariaDB 的 *_nopad_* 排序规则为 NO PAD，其余为 PAD SPACE（比较时忽略末尾空格）
+     */
+    public static boolean isPadSpace(String collation) {
+        if (collation == null) {
+            return false;
+        }
+        String name = collation.toLowerCase();
+        return !name.contains("_0900_") && !name.contains("nopad");
+    }
+
+    public static boolean isNumeric(Object value) {
+        return value instanceof Number || value instanceof Boolean;
+    }
+
+    public static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? BigDecimal.ONE : BigDecimal.ZERO;
+        }
+        return new BigDecimal(value.toString());
+    }
+}
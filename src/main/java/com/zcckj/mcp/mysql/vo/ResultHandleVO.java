@@ -0,0 +1,30 @@
+package com.zcckj.mcp.mysql.vo;
+
+import com.zcckj.mcp.mysql.model.Resource;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 落盘结果集的句柄，客户端按 resource.uri 模板逐页读取
+ */
+@Data
+@Builder
+public class ResultHandleVO {
+    private String resultId;
+
+    private Resource resource;
+
+    private List<String> columns;
+
+    private int rowCount;
+
+    private int pageRows;
+
+    private int pages;
+
+    private boolean truncated;
+
+    private long ttlSeconds;
+}
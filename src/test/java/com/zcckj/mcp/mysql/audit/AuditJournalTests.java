@@ -0,0 +1,149 @@
+package com.zcckj.mcp.mysql.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuditJournalTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRingBufferOrderAndOverflow() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        assertThat(buffer.capacity()).isEqualTo(4);
+
+        List<Integer> drained = new ArrayList<>();
+        // 多转几圈，验证槽位序号回绕
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(buffer.offer(round * 10 + i)).isTrue();
+            }
+            assertThat(buffer.offer(-1)).isFalse();
+            assertThat(buffer.size()).isEqualTo(4);
+            drained.clear();
+            assertThat(buffer.drainTo(drained, 3)).isEqualTo(3);
+            assertThat(buffer.offer(round * 10 + 4)).isTrue();
+            assertThat(buffer.drainTo(drained, 10)).isEqualTo(2);
+            assertThat(drained).containsExactly(round * 10, round * 10 + 1, round * 10 + 2, round * 10 + 3, round * 10 + 4);
+        }
+    }
+
+    @Test
+    void testRingBufferConcurrentProducers() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 5000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        Set<Integer> received = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        while (received.size() < producers * perProducer) {
+            batch.clear();
+            if (buffer.drainTo(batch, 32) == 0) {
+                Thread.yield();
+            }
+            received.addAll(batch);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(received).hasSize(producers * perProducer);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void testRotateAndFilter() throws Exception {
+        // 上限很小，每批写入前都会滚动
+        try (AuditJournalWriter writer = new AuditJournalWriter(dir, 200, 2)) {
+            for (int i = 0; i < 5; i++) {
+                writer.write(List.of(record(1000L + i, "execute_tool", "SELECT * FROM t" + i,
+                        i % 2 == 0 ? AuditRecord.Outcome.OK : AuditRecord.Outcome.REJECTED)));
+            }
+        }
+        // 保留 2 个归档和当前文件，最早的两批已删除
+        assertThat(AuditJournalWriter.listFiles(dir)).hasSize(3);
+        try (Stream<AuditRecord> records = AuditJournalReader.read(dir)) {
+            assertThat(records.map(AuditRecord::getSql)).containsExactly("SELECT * FROM t2", "SELECT * FROM t3", "SELECT * FROM t4");
+        }
+
+        AuditJournalReader.Filter filter = new AuditJournalReader.Filter();
+        filter.setOutcome(AuditRecord.Outcome.OK);
+        filter.setSince(1003L);
+        try (Stream<AuditRecord> records = AuditJournalReader.read(dir)) {
+            assertThat(records.filter(filter).map(AuditRecord::getSql).collect(Collectors.toList()))
+                    .containsExactly("SELECT * FROM t4");
+        }
+    }
+
+    @Test
+    void testTornLineSkipped() throws Exception {
+        try (AuditJournalWriter writer = new AuditJournalWriter(dir, 1 << 20, 2)) {
+            writer.write(List.of(record(1000L, "execute_tool", "SELECT 1", AuditRecord.Outcome.OK)));
+        }
+        // 模拟宕机：最后一条记录只写了一半，截断在多字节字符中间
+        byte[] torn = "{\"timestamp\":\"1001\",\"sql\":\"SELECT 表".getBytes(StandardCharsets.UTF_8);
+        Files.write(dir.resolve(AuditJournalWriter.ACTIVE_FILE), Arrays.copyOf(torn, torn.length - 1),
+                StandardOpenOption.APPEND);
+        try (AuditJournalWriter writer = new AuditJournalWriter(dir, 1 << 20, 2)) {
+            writer.write(List.of(record(1002L, "execute_tool", "SELECT 2", AuditRecord.Outcome.OK)));
+        }
+
+        LongAdder malformed = new LongAdder();
+        try (Stream<AuditRecord> records = AuditJournalReader.read(dir, malformed)) {
+            assertThat(records.map(AuditRecord::getSql)).containsExactly("SELECT 1", "SELECT 2");
+        }
+        assertThat(malformed.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void testRotateSurvivesPruneFailure() throws Exception {
+        // 最早的“归档”是非空目录，删除会失败
+        Path stuck = Files.createDirectories(dir.resolve("audit-00000000-000000-000.jsonl"));
+        Files.writeString(stuck.resolve("keep"), "x");
+        try (AuditJournalWriter writer = new AuditJournalWriter(dir, 200, 1)) {
+            for (int i = 0; i < 3; i++) {
+                writer.write(List.of(record(1000L + i, "execute_tool", "SELECT * FROM t" + i,
+                        AuditRecord.Outcome.OK)));
+            }
+            assertThat(writer.getSize()).isPositive();
+        }
+        assertThat(stuck).isDirectory();
+        assertThat(Files.readString(dir.resolve(AuditJournalWriter.ACTIVE_FILE))).contains("SELECT * FROM t2");
+    }
+
+    private static AuditRecord record(long timestamp, String tool, String sql, AuditRecord.Outcome outcome) {
+        AuditRecord record = new AuditRecord();
+        record.setTimestamp(timestamp);
+        record.setTool(tool);
+        record.setSql(sql);
+        record.setOutcome(outcome);
+        return record;
+    }
+}
@@ -0,0 +1,63 @@
+package com.zcckj.mcp.mysql.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 延迟采样记录器，按纳秒保存全部样本，结束时排序求分位数
+ * 非线程安全，每个压测线程各持有一个，汇总时 merge
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+
+    private int size;
+
+    void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.size; i++) {
+            record(other.samples[i]);
+        }
+    }
+
+    int count() {
+        return size;
+    }
+
+    /**
+     * 生成毫秒单位的统计摘要
+     */
+    LoadTestReport.Latency summarize() {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        LoadTestReport.Latency latency = new LoadTestReport.Latency();
+        latency.setCount(size);
+        if (size == 0) {
+            return latency;
+        }
+        long total = 0;
+        for (long sample : sorted) {
+            total += sample;
+        }
+        latency.setMeanMs(toMillis(total / size));
+        latency.setP50Ms(toMillis(percentile(sorted, 0.50)));
+        latency.setP99Ms(toMillis(percentile(sorted, 0.99)));
+        latency.setP999Ms(toMillis(percentile(sorted, 0.999)));
+        latency.setMaxMs(toMillis(sorted[size - 1]));
+        return latency;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.zcckj.mcp.mysql.loadtest;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测报告，序列化为 JSON 供回归对比
+ */
+@Data
+class LoadTestReport {
+
+    private String startedAt;
+
+    private String database;
+
+    private int clients;
+
+    private int warmupSeconds;
+
+    private int durationSeconds;
+
+    private long calls;
+
+    private long errors;
+
+    private double throughputPerSecond;
+
+    private Latency latency;
+
+    private Map<String, Latency> latencyByQuery = new LinkedHashMap<>();
+
+    private PoolWait poolWait;
+
+    private Heap heap;
+
+    private List<Gc> gc;
+
+    @Data
+    static class Latency {
+        private long count;
+        private double meanMs;
+        private double p50Ms;
+        private double p99Ms;
+        private double p999Ms;
+        private double maxMs;
+    }
+
+    @Data
+    static class PoolWait {
+        private Latency acquire;
+        private long timeouts;
+        private int maxConnections;
+        private int totalConnections;
+    }
+
+    @Data
+    static class Heap {
+        private long maxBytes;
+        private long usedBeforeBytes;
+        private long usedAfterBytes;
+        private long peakUsedBytes;
+    }
+
+    @Data
+    static class Gc {
+        private String name;
+        private long collections;
+        private long timeMs;
+    }
+}
@@ -0,0 +1,292 @@
+package com.zcckj.mcp.mysql.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zcckj.mcp.mysql.McpServerApplication;
+import com.zcckj.mcp.mysql.pool.ConnectionWaitTracker;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 离线压测入口
+ * 1. 启动内存数据库（H2 MySQL 兼容模式）并写入合成的 ctg_ledger_* 数据；
+ *    也可通过 loadtest.jdbc-url 指向已有数据的真实 MySQL，此时不写入数据
+ * 2. 在本进程内以随机端口启动 MCP Server
+ * 3. N 个 MCP SSE 客户端按查询组合的权重并发调用 execute_tool / get_available_table_schemas
+ * 4. 输出吞吐、延迟分位数、连接池等待和堆/GC 统计的 JSON 报告
+ * <p>
+ * 参数均为系统属性，例如：
+ * ./mvnw -Pwebmvc,loadtest -DskipTests verify -Dloadtest.clients=50 -Dloadtest.duration-seconds=120
+ * 其余 spring.* / config.* 系统属性会直接传给被测服务，例如 -Dconfig.rollup.enabled=true
+ * <p>
+ * 查询组合中的 ${projectId}、${userId} 在每次调用时替换为随机的合成数据主键
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    private static final String H2_URL = "jdbc:h2:mem:ledger;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1;"
+            + "INIT=CREATE SCHEMA IF NOT EXISTS ledger\\;SET SCHEMA ledger";
+
+    private final int clients = Integer.getInteger("loadtest.clients", 20);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 10);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 60);
+    private final int depts = Integer.getInteger("loadtest.depts", 30);
+    private final int users = Integer.getInteger("loadtest.users", 500);
+    private final int projects = Integer.getInteger("loadtest.projects", 200);
+    private final int expenseRows = Integer.getInteger("loadtest.expense-rows", 50000);
+    private final String jdbcUrl = System.getProperty("loadtest.jdbc-url", H2_URL);
+    private final String mixPath = System.getProperty("loadtest.mix");
+    private final File reportDir = new File(System.getProperty("loadtest.report-dir", "target/loadtest"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner().run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        List<QueryMixEntry> mix = loadMix();
+        boolean embedded = jdbcUrl.startsWith("jdbc:h2:");
+        if (embedded) {
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+                new SyntheticLedgerData(depts, users, projects, expenseRows).seed(connection);
+            }
+            log.info("合成数据写入完成: {} 个项目，{} 条报销明细", projects, expenseRows);
+        }
+
+        reportDir.mkdirs();
+        // builder.properties() 的优先级低于 application.yml，这里用系统属性覆盖；命令行已指定的保持不变
+        Map<String, String> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("logging.file.name", new File(reportDir, "server.log").getPath());
+        properties.put("spring.datasource.url", jdbcUrl);
+        if (embedded) {
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.datasource.database", "ledger");
+        }
+        properties.forEach((key, value) -> {
+            if (System.getProperty(key) == null) {
+                System.setProperty(key, value);
+            }
+        });
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(McpServerApplication.class).run();
+        try {
+            PoolWaitTracker poolWaitTracker = new PoolWaitTracker();
+            // 连接池只允许设置一次 MetricsTrackerFactory，挂在服务自带的等待统计后面
+            context.getBean(ConnectionWaitTracker.class).setDelegate(poolWaitTracker);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String sseEndpoint = context.getEnvironment().getProperty("spring.ai.mcp.server.sse-endpoint", "/sse");
+            LoadTestReport report = drive(baseUrl, sseEndpoint, mix, poolWaitTracker);
+            report.setDatabase(embedded ? "h2(MySQL mode)" : jdbcUrl.replaceAll("\\?.*", ""));
+
+            File reportFile = new File(reportDir, "report-"
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+            objectMapper.writeValue(reportFile, report);
+            log.info("压测完成: {} 次调用，{} 次失败，吞吐 {}/s，p99 {} ms，报告: {}", report.getCalls(),
+                    report.getErrors(), report.getThroughputPerSecond(), report.getLatency().getP99Ms(),
+                    reportFile.getAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+
+    private LoadTestReport drive(String baseUrl, String sseEndpoint, List<QueryMixEntry> mix,
+                                 PoolWaitTracker poolWaitTracker) throws Exception {
+        List<McpSyncClient> mcpClients = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            McpSyncClient client = McpClient.sync(HttpClientSseClientTransport.builder(baseUrl)
+                            .sseEndpoint(sseEndpoint)
+                            .build())
+                    .requestTimeout(Duration.ofSeconds(60))
+                    .build();
+            client.initialize();
+            mcpClients.add(client);
+        }
+        log.info("{} 个 MCP 客户端已连接 {}{}", clients, baseUrl, sseEndpoint);
+
+        int totalWeight = mix.stream().mapToInt(QueryMixEntry::getWeight).sum();
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+        AtomicLong errors = new AtomicLong();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Map<String, long[]> gcBefore = new HashMap<>();
+        long[] heapPeak = {0};
+        long[] heapBefore = {0};
+
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.schedule(() -> {
+            // 预热结束：开始记录连接池等待，并打下 GC/堆基线
+            poolWaitTracker.start();
+            heapBefore[0] = memory.getHeapMemoryUsage().getUsed();
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcBefore.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+            }
+        }, warmupSeconds, TimeUnit.SECONDS);
+        sampler.scheduleAtFixedRate(() -> heapPeak[0] = Math.max(heapPeak[0], memory.getHeapMemoryUsage().getUsed()),
+                warmupSeconds * 1000L, 100, TimeUnit.MILLISECONDS);
+
+        List<Future<Map<String, LatencyRecorder>>> futures = new ArrayList<>();
+        for (McpSyncClient client : mcpClients) {
+            futures.add(workers.submit(() -> {
+                Map<String, LatencyRecorder> recorders = new HashMap<>();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (true) {
+                    long start = System.nanoTime();
+                    if (start >= end) {
+                        return recorders;
+                    }
+                    QueryMixEntry entry = pick(mix, random.nextInt(totalWeight));
+                    boolean failed;
+                    try {
+                        McpSchema.CallToolResult result = client.callTool(new McpSchema.CallToolRequest(
+                                entry.getTool(), entry.arguments(random, projects, users)));
+                        failed = Boolean.TRUE.equals(result.isError());
+                    } catch (Exception e) {
+                        failed = true;
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    if (start >= warmupEnd) {
+                        recorders.computeIfAbsent(entry.getName(), k -> new LatencyRecorder()).record(elapsed);
+                        if (failed) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+
+        Map<String, LatencyRecorder> byQuery = new TreeMap<>();
+        for (Future<Map<String, LatencyRecorder>> future : futures) {
+            future.get().forEach((name, recorder) ->
+                    byQuery.computeIfAbsent(name, k -> new LatencyRecorder()).merge(recorder));
+        }
+        poolWaitTracker.stop();
+        sampler.shutdownNow();
+        workers.shutdown();
+        for (McpSyncClient client : mcpClients) {
+            client.closeGracefully();
+        }
+
+        LoadTestReport report = new LoadTestReport();
+        report.setStartedAt(LocalDateTime.now().minusSeconds(warmupSeconds + durationSeconds).toString());
+        report.setClients(clients);
+        report.setWarmupSeconds(warmupSeconds);
+        report.setDurationSeconds(durationSeconds);
+        LatencyRecorder overall = new LatencyRecorder();
+        byQuery.forEach((name, recorder) -> {
+            overall.merge(recorder);
+            report.getLatencyByQuery().put(name, recorder.summarize());
+        });
+        report.setCalls(overall.count());
+        report.setErrors(errors.get());
+        report.setThroughputPerSecond(Math.round(overall.count() * 100.0 / durationSeconds) / 100.0);
+        report.setLatency(overall.summarize());
+        report.setPoolWait(poolWaitTracker.summarize());
+
+        LoadTestReport.Heap heap = new LoadTestReport.Heap();
+        heap.setMaxBytes(memory.getHeapMemoryUsage().getMax());
+        heap.setUsedBeforeBytes(heapBefore[0]);
+        heap.setUsedAfterBytes(memory.getHeapMemoryUsage().getUsed());
+        heap.setPeakUsedBytes(heapPeak[0]);
+        report.setHeap(heap);
+        List<LoadTestReport.Gc> gcs = new ArrayList<>();
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            long[] before = gcBefore.getOrDefault(bean.getName(), new long[]{0, 0});
+            LoadTestReport.Gc gc = new LoadTestReport.Gc();
+            gc.setName(bean.getName());
+            gc.setCollections(bean.getCollectionCount() - before[0]);
+            gc.setTimeMs(bean.getCollectionTime() - before[1]);
+            gcs.add(gc);
+        }
+        report.setGc(gcs);
+        return report;
+    }
+
+    private static QueryMixEntry pick(List<QueryMixEntry> mix, int ticket) {
+        for (QueryMixEntry entry : mix) {
+            ticket -= entry.getWeight();
+            if (ticket < 0) {
+                return entry;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private List<QueryMixEntry> loadMix() throws Exception {
+        TypeReference<List<QueryMixEntry>> type = new TypeReference<>() {
+        };
+        if (mixPath != null) {
+            return objectMapper.readValue(Files.readAllBytes(new File(mixPath).toPath()), type);
+        }
+        try (InputStream in = LoadTestRunner.class.getResourceAsStream("/loadtest/query-mix.json")) {
+            return objectMapper.readValue(in, type);
+        }
+    }
+
+    /**
+     * 查询组合中的一项
+     */
+    @Data
+    static class QueryMixEntry {
+        private String name;
+        private String tool;
+        private int weight;
+        private String sql;
+        /**
+         * execute_prepared_tool 的参数列表，value 中同样支持占位符
+         */
+        private List<Map<String, String>> params;
+
+        Map<String, Object> arguments(ThreadLocalRandom random, int projects, int users) {
+            if (sql == null) {
+                return Collections.emptyMap();
+            }
+            String projectId = String.valueOf(1 + random.nextInt(projects));
+            String userId = String.valueOf(1 + random.nextInt(users));
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("sql", resolve(sql, projectId, userId));
+            if (params != null) {
+                arguments.put("params", params.stream()
+                        .map(param -> {
+                            Map<String, String> resolved = new HashMap<>();
+                            param.forEach((key, value) ->
+                                    resolved.put(key, value == null ? null : resolve(value, projectId, userId)));
+                            return resolved;
+                        })
+                        .toList());
+            }
+            return arguments;
+        }
+
+        private static String resolve(String text, String projectId, String userId) {
+            return text.replace("${projectId}", projectId).replace("${userId}", userId);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.zcckj.mcp.mysql.loadtest;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 记录 Hikari 连接获取等待时间和超时次数
+ */
+class PoolWaitTracker implements MetricsTrackerFactory {
+
+    private final LatencyRecorder acquire = new LatencyRecorder();
+
+    private final AtomicLong timeouts = new AtomicLong();
+
+    private volatile boolean recording;
+
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                if (recording) {
+                    synchronized (acquire) {
+                        acquire.record(elapsedAcquiredNanos);
+                    }
+                }
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                if (recording) {
+                    timeouts.incrementAndGet();
+                }
+            }
+        };
+    }
+
+    void start() {
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+    }
+
+    LoadTestReport.PoolWait summarize() {
+        LoadTestReport.PoolWait poolWait = new LoadTestReport.PoolWait();
+        synchronized (acquire) {
+            poolWait.setAcquire(acquire.summarize());
+        }
+        poolWait.setTimeouts(timeouts.get());
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            poolWait.setMaxConnections(stats.getMaxConnections());
+            poolWait.setTotalConnections(stats.getTotalConnections());
+        }
+        return poolWait;
+    }
+}
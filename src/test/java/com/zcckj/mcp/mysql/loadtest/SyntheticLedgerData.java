@@ -0,0 +1,158 @@
+package com.zcckj.mcp.mysql.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * 生成合成的台账数据，固定随机种子保证每次压测数据一致
+ */
+class SyntheticLedgerData {
+
+    private static final String[] SURNAMES = {"张", "李", "王", "刘", "陈", "杨", "赵", "黄", "周", "吴"};
+
+    private static final String[] GIVEN_NAMES = {"伟", "芳", "娜", "敏", "静", "强", "磊", "军", "洋", "勇", "艳", "杰"};
+
+    private static final String[] EXPENSE_TYPES = {"差旅费", "材料费", "劳务费", "会议费", "设备费", "出版费"};
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final Random random = new Random(42);
+
+    private final int depts;
+
+    private final int users;
+
+    private final int projects;
+
+    private final int expenseRows;
+
+    SyntheticLedgerData(int depts, int users, int projects, int expenseRows) {
+        this.depts = depts;
+        this.users = users;
+        this.projects = projects;
+        this.expenseRows = expenseRows;
+    }
+
+    void seed(Connection connection) throws SQLException, IOException {
+        createSchema(connection);
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO sys_dept (dept_id, parent_id, dept_name, order_num) VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= depts; i++) {
+                ps.setLong(1, i);
+                ps.setObject(2, i == 1 ? null : 1L);
+                ps.setString(3, i == 1 ? "总部" : "部门" + i);
+                ps.setInt(4, i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO sys_user (user_id, dept_id, user_name, nick_name, status) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= users; i++) {
+                ps.setLong(1, i);
+                ps.setLong(2, 1 + random.nextInt(depts));
+                ps.setString(3, "user" + i);
+                ps.setString(4, personName());
+                ps.setString(5, random.nextInt(20) == 0 ? "1" : "0");
+                addBatch(ps, i);
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO ctg_ledger_annual_budget (id, budget_year, dept_id, budget_amount) VALUES (?, ?, ?, ?)")) {
+            int id = 0;
+            for (int year = 2022; year <= 2025; year++) {
+                for (int dept = 1; dept <= depts; dept++) {
+                    ps.setLong(1, ++id);
+                    ps.setInt(2, year);
+                    ps.setLong(3, dept);
+                    ps.setBigDecimal(4, amount(100_000, 5_000_000));
+                    addBatch(ps, id);
+                }
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement project = connection.prepareStatement(
+                "INSERT INTO ctg_ledger_project (id, project_name, dept_id, budget_amount, create_time) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement member = connection.prepareStatement(
+                     "INSERT INTO ctg_ledger_project_user (id, ledger_project_id, user_id, role_name) VALUES (?, ?, ?, ?)")) {
+            int memberId = 0;
+            for (int i = 1; i <= projects; i++) {
+                project.setLong(1, i);
+                project.setString(2, "科研项目" + i);
+                project.setLong(3, 1 + random.nextInt(depts));
+                project.setBigDecimal(4, amount(50_000, 2_000_000));
+                project.setTimestamp(5, Timestamp.valueOf(LocalDateTime.of(2022, 1, 1, 9, 0).plusDays(random.nextInt(1200))));
+                addBatch(project, i);
+                for (int m = 0; m < 5; m++) {
+                    member.setLong(1, ++memberId);
+                    member.setLong(2, i);
+                    member.setLong(3, 1 + random.nextInt(users));
+                    member.setString(4, m == 0 ? "负责人" : "成员");
+                    addBatch(member, memberId);
+                }
+            }
+            project.executeBatch();
+            member.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO ctg_ledger_project_expense_detail (id, ledger_project_id, reimburser_name, expense_type, amount, expense_date, create_time) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= expenseRows; i++) {
+                LocalDate date = LocalDate.of(2022, 1, 1).plusDays(random.nextInt(1200));
+                ps.setLong(1, i);
+                ps.setLong(2, 1 + random.nextInt(projects));
+                ps.setString(3, personName());
+                ps.setString(4, EXPENSE_TYPES[random.nextInt(EXPENSE_TYPES.length)]);
+                ps.setBigDecimal(5, amount(10, 20_000));
+                ps.setDate(6, Date.valueOf(date));
+                ps.setTimestamp(7, Timestamp.valueOf(date.atTime(10, 0)));
+                addBatch(ps, i);
+            }
+            ps.executeBatch();
+        }
+
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private void createSchema(Connection connection) throws SQLException, IOException {
+        String ddl;
+        try (InputStream in = SyntheticLedgerData.class.getResourceAsStream("/loadtest/schema.sql")) {
+            ddl = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : ddl.replaceAll("--[^\\n]*", "").split(";")) {
+                if (!sql.isBlank()) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+
+    private static void addBatch(PreparedStatement ps, int count) throws SQLException {
+        ps.addBatch();
+        if (count % BATCH_SIZE == 0) {
+            ps.executeBatch();
+        }
+    }
+
+    private String personName() {
+        return SURNAMES[random.nextInt(SURNAMES.length)] + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+    }
+
+    private BigDecimal amount(int min, int max) {
+        return BigDecimal.valueOf(min * 100L + random.nextInt((max - min) * 100), 2);
+    }
+}
@@ -0,0 +1,59 @@
+package com.zcckj.mcp.mysql.pool;
+
+import com.zcckj.mcp.mysql.config.PoolSizingConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PoolSizingPolicyTests {
+
+    private final PoolSizingConfig config = new PoolSizingConfig();
+
+    @Test
+    void testGrowOnWaitWithinMysqlShare() {
+        PoolSizingPolicy policy = new PoolSizingPolicy(config);
+
+        PoolSizingPolicy.Decision grow = policy.decide(PoolSizingPolicy.Observation.builder()
+                .maximumPoolSize(20).peakInflight(24).peakActive(20).peakAwaiting(4).avgWaitMs(35).build());
+        assertThat(grow.getMaximumPoolSize()).isEqualTo(26);
+        assertThat(grow.getMinimumIdle()).isEqualTo(24);
+
+        // max_connections=100 x 0.25，最多占 25 个
+        PoolSizingPolicy.Decision capped = policy.decide(PoolSizingPolicy.Observation.builder()
+                .maximumPoolSize(20).peakInflight(24).peakActive(20).avgWaitMs(35)
+                .threadsRunning(10).maxConnections(100).build());
+        assertThat(capped.getMaximumPoolSize()).isEqualTo(25);
+        assertThat(capped.getReason()).contains("max_connections=100");
+    }
+
+    @Test
+    void testHoldWhenMysqlSaturated() {
+        PoolSizingPolicy policy = new PoolSizingPolicy(config);
+        PoolSizingPolicy.Decision hold = policy.decide(PoolSizingPolicy.Observation.builder()
+                .maximumPoolSize(20).peakInflight(30).peakActive(20).timeouts(3)
+                .threadsRunning(80).maxConnections(1000).build());
+        assertThat(hold.getMaximumPoolSize()).isEqualTo(20);
+        assertThat(hold.getReason()).contains("Threads_running=80");
+    }
+
+    @Test
+    void testShrinkAfterQuietWindows() {
+        PoolSizingPolicy policy = new PoolSizingPolicy(config);
+        PoolSizingPolicy.Observation quiet = PoolSizingPolicy.Observation.builder()
+                .maximumPoolSize(20).peakInflight(1).peakActive(1).build();
+        for (int i = 1; i < config.getShrinkAfterWindows(); i++) {
+            assertThat(policy.decide(quiet).getMaximumPoolSize()).isEqualTo(20);
+        }
+        PoolSizingPolicy.Decision shrink = policy.decide(quiet);
+        assertThat(shrink.getMaximumPoolSize()).isEqualTo(18);
+        assertThat(shrink.getMinimumIdle()).isEqualTo(config.getMinPoolSize());
+
+        // 低负载计数在缩容后重新开始，夜间逐步缩到下限
+        int size = shrink.getMaximumPoolSize();
+        for (int i = 0; i < 100; i++) {
+            quiet.setMaximumPoolSize(size);
+            size = policy.decide(quiet).getMaximumPoolSize();
+        }
+        assertThat(size).isEqualTo(3);
+    }
+}
@@ -0,0 +1,160 @@
+package com.zcckj.mcp.mysql.rollup;
+
+import com.zcckj.mcp.mysql.config.RollupConfig.RollupDefinition;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RollupTableTests {
+
+    private RollupTable rollup;
+
+    @BeforeEach
+    void setUp() {
+        RollupDefinition definition = new RollupDefinition();
+        definition.setName("expense_by_project_reimburser");
+        definition.setTable("ctg_ledger_project_expense_detail");
+        definition.setDimensions(List.of("ledger_project_id", "reimburser_name"));
+        definition.setMeasures(List.of("amount"));
+        rollup = new RollupTable(definition);
+        rollup.setCollations(Map.of("reimburser_name", "utf8mb4_bin"));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(cell(11L, "张三", 2, "300.00"));
+        rows.add(cell(11L, "李四", 1, "500.00"));
+        rows.add(cell(11L, "王五", 3, "120.00"));
+        rows.add(cell(12L, "张三", 1, "999.00"));
+        rollup.replace(rows, null);
+    }
+
+    @Test
+    void testAnswerGroupByWithOrderAndLimit() throws Exception {
+        List<Map<String, Object>> rows = rollup.answer(parse("""
+                SELECT
+                    d.reimburser_name AS 姓名,
+                    SUM(d.amount) AS 报销金额
+                FROM ctg_ledger_project_expense_detail d
+                WHERE d.ledger_project_id = 11
+                GROUP BY d.reimburser_name
+                ORDER BY SUM(d.amount) DESC
+                LIMIT 2"""));
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsEntry("姓名", "李四").containsEntry("报销金额", new BigDecimal("500.00"));
+        assertThat(rows.get(1)).containsEntry("姓名", "张三").containsEntry("报销金额", new BigDecimal("300.00"));
+    }
+
+    @Test
+    void testAnswerGlobalAggregate() throws Exception {
+        List<Map<String, Object>> rows = rollup.answer(parse(
+                "SELECT COUNT(*) AS cnt, AVG(amount) FROM ctg_ledger_project_expense_detail WHERE reimburser_name IN ('张三', '李四')"));
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsEntry("cnt", 4L)
+                .containsEntry("AVG(amount)", new BigDecimal("449.750000"));
+    }
+
+    @Test
+    void testIncrementalMerge() throws Exception {
+        List<Map<String, Object>> delta = new ArrayList<>();
+        delta.add(cell(11L, "王五", 1, "400.00"));
+        rollup.merge(delta, null);
+
+        List<Map<String, Object>> rows = rollup.answer(parse(
+                "SELECT reimburser_name, SUM(amount) total FROM ctg_ledger_project_expense_detail "
+                        + "WHERE ledger_project_id = 11 GROUP BY reimburser_name ORDER BY total DESC LIMIT 1"));
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsEntry("reimburser_name", "王五")
+                .containsEntry("total", new BigDecimal("520.00"));
+    }
+
+    @Test
+    void testUncoveredQueriesFallBack() throws Exception {
+        // 非维度列过滤
+        assertThat(rollup.answer(parse(
+                "SELECT reimburser_name, SUM(amount) FROM ctg_ledger_project_expense_detail WHERE amount > 100 GROUP BY reimburser_name")))
+                .isNull();
+        // 明细查询
+        assertThat(rollup.answer(parse("SELECT reimburser_name FROM ctg_ledger_project_expense_detail"))).isNull();
+        // HAVING
+        assertThat(rollup.answer(parse(
+                "SELECT reimburser_name, SUM(amount) FROM ctg_ledger_project_expense_detail GROUP BY reimburser_name HAVING SUM(amount) > 1")))
+                .isNull();
+        // 数字维度与字符串字面量比较
+        assertThat(rollup.answer(parse(
+                "SELECT SUM(amount) FROM ctg_ledger_project_expense_detail WHERE ledger_project_id = '11'")))
+                .isNull();
+    }
+
+    @Test
+    void testStringDimensionFollowsCollation() throws Exception {
+        List<Map<String, Object>> delta = new ArrayList<>();
+        delta.add(cell(11L, "Bob", 1, "10.00"));
+        delta.add(cell(12L, "bob", 2, "20.00"));
+        delta.add(cell(13L, "bob ", 4, "40.00"));
+        rollup.merge(delta, null);
+
+        // utf8mb4_bin 区分大小写，PAD SPACE 忽略末尾空格
+        List<Map<String, Object>> rows = rollup.answer(parse(
+                "SELECT reimburser_name, COUNT(*) cnt, SUM(amount) total FROM ctg_ledger_project_expense_detail "
+                        + "WHERE reimburser_name IN ('bob', 'Bob') GROUP BY reimburser_name"));
+        assertThat(rows).extracting(r -> r.get("cnt")).containsExactlyInAnyOrder(1L, 6L);
+        assertThat(rollup.answer(parse(
+                "SELECT SUM(amount) total FROM ctg_ledger_project_expense_detail WHERE reimburser_name = 'bob'")))
+                .singleElement().satisfies(r -> assertThat(r).containsEntry("total", new BigDecimal("60.00")));
+        // 字符串排序依赖 UCA 权重，交给 MySQL
+        assertThat(rollup.answer(parse(
+                "SELECT reimburser_name, SUM(amount) FROM ctg_ledger_project_expense_detail "
+                        + "GROUP BY reimburser_name ORDER BY reimburser_name"))).isNull();
+
+        // *_ci 下还有重音、全半角等差异，本地无法复现
+        rollup.setCollations(Map.of("reimburser_name", "utf8mb4_0900_ai_ci"));
+        assertThat(rollup.answer(parse(
+                "SELECT SUM(amount) FROM ctg_ledger_project_expense_detail WHERE reimburser_name = 'bob'"))).isNull();
+        assertThat(rollup.answer(parse(
+                "SELECT reimburser_name, SUM(amount) FROM ctg_ledger_project_expense_detail GROUP BY reimburser_name")))
+                .isNull();
+        // 不涉及字符串维度的查询不受影响
+        assertThat(rollup.answer(parse(
+                "SELECT ledger_project_id, SUM(amount) FROM ctg_ledger_project_expense_detail GROUP BY ledger_project_id")))
+                .hasSize(3);
+    }
+
+    @Test
+    void testDisabledRollupFallsBack() throws Exception {
+        assertThat(rollup.buildAggregateSql("demo", null, 101)).endsWith(" LIMIT 101");
+
+        rollup.disable();
+        assertThat(rollup.isDisabled()).isTrue();
+        assertThat(rollup.answer(parse(
+                "SELECT reimburser_name, SUM(amount) FROM ctg_ledger_project_expense_detail GROUP BY reimburser_name")))
+                .isNull();
+    }
+
+    private static Map<String, Object> cell(Long projectId, String name, long rows, String sum) {
+        Map<String, Object> row = new LinkedCaseInsensitiveMap<>();
+        row.put("ledger_project_id", projectId);
+        row.put("reimburser_name", name);
+        row.put(RollupTable.ROWS_LABEL, rows);
+        row.put("amount__sum", new BigDecimal(sum));
+        row.put("amount__cnt", rows);
+        row.put("amount__min", new BigDecimal(sum));
+        row.put("amount__max", new BigDecimal(sum));
+        return row;
+    }
+
+    private static PlainSelect parse(String sql) throws Exception {
+        return (PlainSelect) ((Select) CCJSqlParserUtil.parse(sql)).getSelectBody();
+    }
+}
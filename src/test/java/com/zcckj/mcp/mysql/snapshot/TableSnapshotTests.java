@@ -0,0 +1,94 @@
+package com.zcckj.mcp.mysql.snapshot;
+
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TableSnapshotTests {
+
+    private TableSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(dept(1L, "总部", null, 1));
+        rows.add(dept(2L, "财务部", 1L, 2));
+        rows.add(dept(3L, "研发部", 1L, 1));
+        rows.add(dept(4L, "测试部", 3L, 3));
+        snapshot = TableSnapshot.of("sys_dept", rows, Map.of("dept_name", "utf8mb4_general_ci"));
+    }
+
+    @Test
+    void testPointLookup() throws Exception {
+        List<Map<String, Object>> rows = snapshot.answer(parse("SELECT dept_name AS 名称 FROM sys_dept WHERE dept_id = 3"));
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsEntry("名称", "研发部").hasSize(1);
+    }
+
+    @Test
+    void testRangeFilterOrderAndLimit() throws Exception {
+        List<Map<String, Object>> rows = snapshot.answer(parse(
+                "SELECT * FROM sys_dept d WHERE d.parent_id IS NOT NULL AND order_num >= 1 ORDER BY order_num DESC, dept_id LIMIT 2"));
+
+        assertThat(rows).extracting(r -> r.get("dept_id")).containsExactly(4L, 2L);
+        assertThat(rows.get(0)).containsEntry("order_num", 3);
+    }
+
+    @Test
+    void testUnsupportedQueriesFallBack() throws Exception {
+        assertThat(snapshot.answer(parse("SELECT COUNT(*) FROM sys_dept"))).isNull();
+        assertThat(snapshot.answer(parse("SELECT dept_name FROM sys_dept WHERE dept_name LIKE '%部'"))).isNull();
+        assertThat(snapshot.answer(parse("SELECT unknown_column FROM sys_dept"))).isNull();
+        assertThat(snapshot.answer(parse("SELECT dept_name FROM sys_dept WHERE dept_id = 'abc'"))).isNull();
+    }
+
+    @Test
+    void testStringPredicatesFollowCollation() throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String code : List.of("ab", "AB", "ab ", "ａｂ")) {
+            Map<String, Object> row = new LinkedCaseInsensitiveMap<>();
+            row.put("pad_bin", code);
+            row.put("nopad_bin", code);
+            row.put("ci", code);
+            row.put("doc", "{}");
+            rows.add(row);
+        }
+        TableSnapshot codes = TableSnapshot.of("t_code", rows, Map.of("pad_bin", "utf8mb4_bin",
+                "nopad_bin", "utf8mb4_0900_bin", "ci", "utf8mb4_0900_ai_ci"));
+
+        // *_bin 按码点比较，PAD SPACE 忽略末尾空格，NO PAD 不忽略
+        assertThat(codes.answer(parse("SELECT pad_bin FROM t_code WHERE pad_bin = 'ab'"))).hasSize(2);
+        assertThat(codes.answer(parse("SELECT nopad_bin FROM t_code WHERE nopad_bin IN ('ab', 'AB')"))).hasSize(2);
+        assertThat(codes.answer(parse("SELECT pad_bin FROM t_code WHERE pad_bin <> 'ab'"))).hasSize(2);
+        // *_ci 下大小写、全半角都相等，排序规则未知的字符串列（如 JSON）同样交给 MySQL
+        assertThat(codes.answer(parse("SELECT ci FROM t_code WHERE ci = 'ab'"))).isNull();
+        assertThat(codes.answer(parse("SELECT doc FROM t_code WHERE doc = '{}'"))).isNull();
+        // 字符串范围条件和排序依赖 UCA 权重
+        assertThat(codes.answer(parse("SELECT pad_bin FROM t_code WHERE pad_bin > 'a'"))).isNull();
+        assertThat(codes.answer(parse("SELECT pad_bin FROM t_code ORDER BY pad_bin"))).isNull();
+        assertThat(codes.answer(parse("SELECT ci FROM t_code WHERE ci IS NOT NULL"))).hasSize(4);
+    }
+
+    private static Map<String, Object> dept(Long id, String name, Long parentId, Integer orderNum) {
+        Map<String, Object> row = new LinkedCaseInsensitiveMap<>();
+        row.put("dept_id", id);
+        row.put("dept_name", name);
+        row.put("parent_id", parentId);
+        row.put("order_num", orderNum);
+        return row;
+    }
+
+    private static PlainSelect parse(String sql) throws Exception {
+        return (PlainSelect) ((Select) CCJSqlParserUtil.parse(sql)).getSelectBody();
+    }
+}
@@ -0,0 +1,65 @@
+package com.zcckj.mcp.mysql.spill;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SpilledResultTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testPagingAndTypes() throws Exception {
+        SpilledResult.Writer writer = new SpilledResult.Writer("r1", dir.resolve("r1.rows"),
+                List.of("id", "name", "amount", "rate", "paid", "day"), 2, 100, 1 << 20);
+        for (int i = 1; i <= 5; i++) {
+            writer.append(new Object[]{i, "项目" + i, new BigDecimal(i + ".50"), i / 4.0, i % 2 == 0,
+                    i == 3 ? null : Date.valueOf("2024-03-0" + i)});
+        }
+        SpilledResult result = writer.finish();
+
+        assertThat(result.getRowCount()).isEqualTo(5);
+        assertThat(result.getPages()).isEqualTo(3);
+        assertThat(result.isTruncated()).isFalse();
+        assertThat(result.readPage(1)).hasSize(2);
+        assertThat(result.readPage(2).get(1))
+                .containsExactly(4L, "项目4", new BigDecimal("4.50"), 1.0, true, "2024-03-04");
+        assertThat(result.readPage(3)).hasSize(1);
+        assertThat(result.readPage(2).get(0)[5]).isNull();
+        assertThatThrownBy(() -> result.readPage(4)).isInstanceOf(IllegalArgumentException.class);
+
+        result.close();
+        assertThat(Files.exists(result.getFile())).isFalse();
+    }
+
+    @Test
+    void testTruncateByRowsAndBytes() throws Exception {
+        SpilledResult.Writer byRows = new SpilledResult.Writer("r2", dir.resolve("r2.rows"), List.of("id"), 10, 3, 1 << 20);
+        int appended = 0;
+        for (long i = 0; i < 10 && byRows.append(new Object[]{i}); i++) {
+            appended++;
+        }
+        SpilledResult rows = byRows.finish();
+        assertThat(appended).isEqualTo(3);
+        assertThat(rows.getRowCount()).isEqualTo(3);
+        assertThat(rows.isTruncated()).isTrue();
+
+        // 每行 1 字节标记 + 8 字节取值，上限 20 字节写满 3 行后停止
+        SpilledResult.Writer byBytes = new SpilledResult.Writer("r3", dir.resolve("r3.rows"), List.of("id"), 10, 100, 20);
+        for (long i = 0; i < 10 && byBytes.append(new Object[]{i}); i++) {
+        }
+        SpilledResult bytes = byBytes.finish();
+        assertThat(bytes.getRowCount()).isEqualTo(3);
+        assertThat(bytes.isTruncated()).isTrue();
+        assertThat(bytes.readPage(1).get(2)).containsExactly(2L);
+    }
+}
@@ -0,0 +1,143 @@
+package com.zcckj.mcp.mysql.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.ServerParameters;
+import io.modelcontextprotocol.client.transport.StdioClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * STDIO 模式启动耗时探针，由 -Pstdio 构建在 integration-test 阶段执行
+ * 以子进程方式分别拉起普通 fat jar 和 AOT + AppCDS 版本，测量进程启动到 initialize 响应、到第一次工具响应的耗时
+ * <p>
+ * 工具调用不要求数据库可达：连接失败时返回的错误信息同样是一次完整的工具响应，
+ * 需要连真实数据库时通过 SPRING_DATASOURCE_URL 等环境变量传给子进程
+ * <p>
+ * 系统属性：startup.runs（每种方式启动次数，取中位数）、startup.sql（首次调用的SQL）、
+ * startup.budget-ms（AOT + CDS 首次响应中位数超过该值时构建失败，默认不校验）
+ */
+@Slf4j
+public class StdioStartupProbe {
+
+    private final File fatJar = new File(System.getProperty("startup.fat-jar"));
+    private final File stdioDir = new File(System.getProperty("startup.stdio-dir"));
+    private final int runs = Integer.getInteger("startup.runs", 3);
+    private final long budgetMs = Long.getLong("startup.budget-ms", 0);
+    private final String sql = System.getProperty("startup.sql", "SELECT dept_id, dept_name FROM sys_dept LIMIT 1");
+    private final File reportDir = new File(System.getProperty("startup.report-dir", "target/startup"));
+    private final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws Exception {
+        new StdioStartupProbe().run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        reportDir.mkdirs();
+        StartupReport report = new StartupReport();
+        report.setStartedAt(LocalDateTime.now().toString());
+        report.setSql(sql);
+
+        report.setBaseline(measure("baseline", List.of(
+                "-Dspring.profiles.active=stdio",
+                "-jar", fatJar.getPath())));
+        report.setOptimized(measure("aot-cds", List.of(
+                "-XX:SharedArchiveFile=" + new File(stdioDir, "application.jsa").getPath(),
+                "-Dspring.aot.enabled=true",
+                "-Dspring.profiles.active=stdio",
+                "-jar", new File(stdioDir, fatJar.getName()).getPath())));
+
+        File reportFile = new File(reportDir, "startup-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.writeValue(reportFile, report);
+        log.info("STDIO 启动到首次工具响应（中位数）: 普通 {} ms，AOT + CDS {} ms，报告: {}",
+                report.getBaseline().getFirstToolMs(), report.getOptimized().getFirstToolMs(),
+                reportFile.getAbsolutePath());
+
+        if (budgetMs > 0 && report.getOptimized().getFirstToolMs() > budgetMs) {
+            throw new IllegalStateException(String.format("STDIO 启动到首次工具响应 %d ms，超过预算 %d ms",
+                    report.getOptimized().getFirstToolMs(), budgetMs));
+        }
+    }
+
+    private Variant measure(String name, List<String> jvmArgs) {
+        Variant variant = new Variant();
+        variant.setName(name);
+        variant.setCommand(String.join(" ", jvmArgs));
+        List<Long> initialize = new ArrayList<>();
+        List<Long> firstTool = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            ServerParameters parameters = ServerParameters.builder(java)
+                    .args(jvmArgs)
+                    // 日志写入报告目录，避免在工作目录下生成 logs/
+                    .env(Map.of("LOGGING_FILE_NAME", new File(reportDir, name + ".log").getPath()))
+                    .build();
+            long start = System.nanoTime();
+            McpSyncClient client = McpClient.sync(new StdioClientTransport(parameters))
+                    .requestTimeout(Duration.ofSeconds(60))
+                    .build();
+            try {
+                client.initialize();
+                initialize.add(elapsedMs(start));
+                McpSchema.CallToolResult result = client.callTool(
+                        new McpSchema.CallToolRequest("execute_tool", Map.of("sql", sql)));
+                firstTool.add(elapsedMs(start));
+                if (variant.getFirstResponse() == null && !result.content().isEmpty()
+                        && result.content().get(0) instanceof McpSchema.TextContent text) {
+                    variant.setFirstResponse(text.text().length() > 200 ? text.text().substring(0, 200) : text.text());
+                }
+            } finally {
+                client.closeGracefully();
+            }
+        }
+        variant.setInitializeRunsMs(initialize);
+        variant.setFirstToolRunsMs(firstTool);
+        variant.setInitializeMs(median(initialize));
+        variant.setFirstToolMs(median(firstTool));
+        log.info("{}: initialize {} ms，首次工具响应 {} ms", name, variant.getInitializeMs(), variant.getFirstToolMs());
+        return variant;
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    @Data
+    static class StartupReport {
+        private String startedAt;
+        private String sql;
+        private Variant baseline;
+        private Variant optimized;
+    }
+
+    @Data
+    static class Variant {
+        private String name;
+        private String command;
+        private long initializeMs;
+        private long firstToolMs;
+        private List<Long> initializeRunsMs;
+        private List<Long> firstToolRunsMs;
+        private String firstResponse;
+    }
+}
@@ -0,0 +1,58 @@
+package com.zcckj.mcp.mysql.utils;
+
+import com.zcckj.mcp.mysql.model.SqlParameter;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PreparedSqlUtilsTests {
+
+    @Test
+    void testCountPlaceholdersSkipsLiteralsAndComments() {
+        assertThat(PreparedSqlUtils.countPlaceholders(
+                "SELECT * FROM t WHERE a = ? AND b IN (?, ?) LIMIT ?")).isEqualTo(4);
+        assertThat(PreparedSqlUtils.countPlaceholders(
+                "SELECT '?', \"it''s?\", `col?` FROM t WHERE a = ? -- b = ?\n AND c = ? /* ? */")).isEqualTo(2);
+        assertThat(PreparedSqlUtils.countPlaceholders("SELECT 'a\\'?' FROM t")).isZero();
+        assertThat(PreparedSqlUtils.countPlaceholders(
+                "SELECT ':name', '?1' FROM t WHERE a = ? AND b := 1")).isEqualTo(1);
+    }
+
+    @Test
+    void testRejectNumberedAndNamedParameters() {
+        assertThatThrownBy(() -> PreparedSqlUtils.countPlaceholders("SELECT * FROM t WHERE a = ?1 AND b = ?2"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("编号");
+        assertThatThrownBy(() -> PreparedSqlUtils.countPlaceholders("SELECT * FROM t WHERE a = ? AND b = :name"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("命名");
+    }
+
+    @Test
+    void testToJdbcValue() {
+        assertThat(PreparedSqlUtils.toJdbcValue(new SqlParameter("long", " 42 "))).isEqualTo(42L);
+        assertThat(PreparedSqlUtils.toJdbcValue(new SqlParameter("DECIMAL", "12.50"))).isEqualTo(new BigDecimal("12.50"));
+        assertThat(PreparedSqlUtils.toJdbcValue(new SqlParameter("string", " 张三 "))).isEqualTo(" 张三 ");
+        assertThat(PreparedSqlUtils.toJdbcValue(new SqlParameter("boolean", "1"))).isEqualTo(Boolean.TRUE);
+        assertThat(PreparedSqlUtils.toJdbcValue(new SqlParameter("date", "2024-03-01")))
+                .isEqualTo(Date.valueOf("2024-03-01"));
+        assertThat(PreparedSqlUtils.toJdbcValue(new SqlParameter("datetime", "2024-03-01 08:30:00")))
+                .isEqualTo(Timestamp.valueOf("2024-03-01 08:30:00"));
+        assertThat(PreparedSqlUtils.toJdbcValue(new SqlParameter("null", null))).isNull();
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThatThrownBy(() -> PreparedSqlUtils.toJdbcValue(new SqlParameter("long", "abc")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("long");
+        assertThatThrownBy(() -> PreparedSqlUtils.toJdbcValue(new SqlParameter("uuid", "x")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("不支持");
+        assertThatThrownBy(() -> PreparedSqlUtils.toJdbcValue(new SqlParameter("string", null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PreparedSqlUtils.toJdbcValue(new SqlParameter(null, "1")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,49 @@
+-- 压测用的合成表结构，字段只覆盖查询组合中用到的列
+CREATE TABLE IF NOT EXISTS sys_dept (
+    dept_id BIGINT PRIMARY KEY,
+    parent_id BIGINT,
+    dept_name VARCHAR(50),
+    order_num INT
+);
+
+CREATE TABLE IF NOT EXISTS sys_user (
+    user_id BIGINT PRIMARY KEY,
+    dept_id BIGINT,
+    user_name VARCHAR(30),
+    nick_name VARCHAR(30),
+    status CHAR(1)
+);
+
+CREATE TABLE IF NOT EXISTS ctg_ledger_annual_budget (
+    id BIGINT PRIMARY KEY,
+    budget_year INT,
+    dept_id BIGINT,
+    budget_amount DECIMAL(18, 2)
+);
+
+CREATE TABLE IF NOT EXISTS ctg_ledger_project (
+    id BIGINT PRIMARY KEY,
+    project_name VARCHAR(100),
+    dept_id BIGINT,
+    budget_amount DECIMAL(18, 2),
+    create_time DATETIME
+);
+
+CREATE TABLE IF NOT EXISTS ctg_ledger_project_user (
+    id BIGINT PRIMARY KEY,
+    ledger_project_id BIGINT,
+    user_id BIGINT,
+    role_name VARCHAR(20)
+);
+
+CREATE TABLE IF NOT EXISTS ctg_ledger_project_expense_detail (
+    id BIGINT PRIMARY KEY,
+    ledger_project_id BIGINT,
+    reimburser_name VARCHAR(30),
+    expense_type VARCHAR(20),
+    amount DECIMAL(18, 2),
+    expense_date DATE,
+    create_time DATETIME
+);
+
+CREATE INDEX idx_expense_project ON ctg_ledger_project_expense_detail (ledger_project_id);